@@ -0,0 +1,110 @@
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Build step: turns the UI resources into {@code UiAssets.java} with minified and gzip-compressed bytes plus an ETag per
+ * file, so the console serves the UI without resource lookups at runtime. The build compiles and runs it inside the
+ * Maven JVM before compile, by hand: {@code java src/build/UiAssetsGenerator.java <uiDir> <outputDir>}.
+ */
+public class UiAssetsGenerator {
+
+    // Chars per string constant - stays below the 65535 byte constant pool limit even if every char needs two bytes
+    static final int CHUNK = 16_000;
+    static final String PACKAGE = "org.nanonative.devconsole.util";
+    static final Pattern CSS_COMMENT = Pattern.compile("/\\*.*?\\*/", Pattern.DOTALL);
+    static final Pattern HTML_COMMENT = Pattern.compile("<!--.*?-->", Pattern.DOTALL);
+
+    public static void main(final String[] args) throws IOException, NoSuchAlgorithmException {
+        final Path uiDir = Path.of(args[0]);
+        final Path target = Path.of(args[1]).resolve(PACKAGE.replace('.', '/')).resolve("UiAssets.java");
+        final List<Path> files;
+        try (Stream<Path> list = Files.list(uiDir)) {
+            files = list.filter(Files::isRegularFile).sorted().toList();
+        }
+
+        final StringBuilder src = new StringBuilder()
+            .append("// Generated by src/build/UiAssetsGenerator.java from src/main/resources/ui - do not edit\n")
+            .append("package ").append(PACKAGE).append(";\n\n")
+            .append("import java.util.LinkedHashMap;\n")
+            .append("import java.util.Map;\n\n")
+            .append("final class UiAssets {\n\n")
+            .append("    private UiAssets() {}\n\n")
+            .append("    static Map<String, UiAsset> load() {\n")
+            .append("        final Map<String, UiAsset> assets = new LinkedHashMap<>();\n");
+        for (Path file : files) {
+            final String name = file.getFileName().toString();
+            final byte[] raw = minify(name, Files.readString(file, StandardCharsets.UTF_8)).getBytes(StandardCharsets.UTF_8);
+            final byte[] gzip = gzip(raw);
+            final String etag = "\\\"" + HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(raw), 0, 8) + "\\\"";
+            src.append("        assets.put(\"").append(name).append("\", new UiAsset(\"").append(name).append("\", \"").append(etag).append("\",\n")
+                .append("            UiAsset.bytes(").append(chunks(raw)).append("),\n")
+                .append("            UiAsset.bytes(").append(chunks(gzip)).append(")));\n");
+        }
+        src.append("        return assets;\n    }\n}\n");
+
+        // Unchanged output keeps incremental compiles incremental
+        final String generated = src.toString();
+        if (Files.exists(target) && Files.readString(target, StandardCharsets.UTF_8).equals(generated))
+            return;
+        Files.createDirectories(target.getParent());
+        Files.writeString(target, generated, StandardCharsets.UTF_8);
+    }
+
+    // Conservative: comments and indentation only, line breaks stay so JS semicolon insertion is unaffected
+    static String minify(final String name, final String text) {
+        String result = text;
+        if (name.endsWith(".css"))
+            result = CSS_COMMENT.matcher(result).replaceAll("");
+        if (name.endsWith(".html"))
+            result = HTML_COMMENT.matcher(result).replaceAll("");
+        final StringBuilder out = new StringBuilder(result.length());
+        for (String line : result.split("\n")) {
+            final String trimmed = line.strip();
+            if (trimmed.isEmpty() || (name.endsWith(".js") && trimmed.startsWith("//")))
+                continue;
+            out.append(trimmed).append('\n');
+        }
+        return out.toString();
+    }
+
+    static byte[] gzip(final byte[] raw) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes) {{ def.setLevel(Deflater.BEST_COMPRESSION); }}) {
+            gzip.write(raw);
+        }
+        return bytes.toByteArray();
+    }
+
+    // Bytes as latin-1 string constants - String.getBytes(ISO_8859_1) gives them back without decoding
+    static String chunks(final byte[] data) {
+        final StringBuilder out = new StringBuilder("new String[]{");
+        for (int start = 0; start < data.length; start += CHUNK) {
+            if (start > 0)
+                out.append(",\n                ");
+            out.append('"');
+            for (int i = start; i < Math.min(data.length, start + CHUNK); i++) {
+                final int b = data[i] & 0xff;
+                if (b == '"' || b == '\\')
+                    out.append('\\').append((char) b);
+                else if (b >= 0x20 && b < 0x7f)
+                    out.append((char) b);
+                else
+                    // Always three digits, a following digit char must not extend the escape
+                    out.append('\\').append(String.format("%03o", b));
+            }
+            out.append('"');
+        }
+        return out.append('}').toString();
+    }
+}
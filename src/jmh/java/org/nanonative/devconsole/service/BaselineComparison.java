@@ -0,0 +1,105 @@
+package org.nanonative.devconsole.service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static berlin.yuna.typemap.logic.JsonDecoder.jsonListOf;
+
+/**
+ * Compares a JMH JSON result with the committed baseline and fails when a benchmark regressed by more than the tolerance
+ * in percent. Scores follow their mode (throughput higher is better, times lower), allocation per operation
+ * ({@code gc.alloc.rate.norm}) lower is better. The benchmark profile runs it after the benchmarks, by hand:
+ * {@code java -cp <test classpath> org.nanonative.devconsole.service.BaselineComparison <baseline> <result> [tolerance]}.
+ */
+public class BaselineComparison {
+
+    public static final double DEFAULT_TOLERANCE = 10;
+    // Allocation changes below this many bytes per operation are noise, whatever the percentage
+    public static final double ALLOC_NOISE_BYTES = 16;
+
+    public static void main(final String[] args) throws IOException {
+        final Path baseline = Path.of(args[0]);
+        final Path result = Path.of(args[1]);
+        final double tolerance = args.length > 2 && !args[2].isBlank() ? Double.parseDouble(args[2]) : DEFAULT_TOLERANCE;
+        if (!Files.isRegularFile(baseline) || !Files.isRegularFile(result)) {
+            System.out.println("No JMH baseline [" + baseline + "] or result [" + result + "] - nothing to compare");
+            return;
+        }
+        final List<String> regressions = compare(Files.readString(baseline), Files.readString(result), tolerance);
+        if (!regressions.isEmpty()) {
+            regressions.forEach(System.err::println);
+            System.err.println(regressions.size() + " benchmark regression(s) beyond " + tolerance + "% against " + baseline);
+            System.exit(1);
+        }
+    }
+
+    public static List<String> compare(final String baselineJson, final String resultJson, final double tolerance) {
+        final Map<String, Map<?, ?>> before = index(baselineJson);
+        final List<String> regressions = new ArrayList<>();
+        index(resultJson).forEach((key, run) -> {
+            final Map<?, ?> base = before.get(key);
+            if (null == base) {
+                System.out.println("[new] " + key);
+                return;
+            }
+            final boolean higherIsBetter = "thrpt".equals(String.valueOf(run.get("mode")));
+            final double score = number(map(run.get("primaryMetric")).get("score"));
+            final double baseScore = number(map(base.get("primaryMetric")).get("score"));
+            report(key, "score", baseScore, score, higherIsBetter, tolerance, 0, regressions);
+            report(key, "gc.alloc.rate.norm", allocation(base), allocation(run), false, tolerance, ALLOC_NOISE_BYTES, regressions);
+        });
+        return regressions;
+    }
+
+    private static void report(final String key, final String metric, final double before, final double after, final boolean higherIsBetter,
+                               final double tolerance, final double noise, final List<String> regressions) {
+        if (Double.isNaN(before) || Double.isNaN(after))
+            return;
+        final double worse = higherIsBetter ? before - after : after - before;
+        final double percent = before == 0 ? (worse > 0 ? Double.POSITIVE_INFINITY : 0) : worse * 100 / Math.abs(before);
+        final String line = String.format("%s %s: %.3f -> %.3f (%.1f%% %s)", key, metric, before, after, Math.abs(percent), percent > 0 ? "worse" : "better");
+        System.out.println(line);
+        if (percent > tolerance && worse > noise)
+            regressions.add("[regression] " + line);
+    }
+
+    // benchmark{params} threads=n identifies one run across result files
+    private static Map<String, Map<?, ?>> index(final String json) {
+        final Map<String, Map<?, ?>> runs = new TreeMap<>();
+        for (Object entry : jsonListOf(json)) {
+            final Map<?, ?> run = map(entry);
+            final Map<String, Object> params = new TreeMap<>();
+            map(run.get("params")).forEach((k, v) -> params.put(String.valueOf(k), v));
+            runs.put(run.get("benchmark") + (params.isEmpty() ? "" : String.valueOf(params)) + " threads=" + run.get("threads"), run);
+        }
+        return runs;
+    }
+
+    private static double allocation(final Map<?, ?> run) {
+        for (Map.Entry<?, ?> metric : map(run.get("secondaryMetrics")).entrySet()) {
+            // Older JMH versions prefix profiler metrics with a middle dot
+            if (String.valueOf(metric.getKey()).endsWith("gc.alloc.rate.norm"))
+                return number(map(metric.getValue()).get("score"));
+        }
+        return Double.NaN;
+    }
+
+    private static Map<?, ?> map(final Object value) {
+        return value instanceof Map<?, ?> map ? map : Map.of();
+    }
+
+    private static double number(final Object value) {
+        if (value instanceof Number number)
+            return number.doubleValue();
+        try {
+            return null == value ? Double.NaN : Double.parseDouble(String.valueOf(value));
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+}
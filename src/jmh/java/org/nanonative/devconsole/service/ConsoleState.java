@@ -0,0 +1,49 @@
+package org.nanonative.devconsole.service;
+
+import org.nanonative.nano.core.Nano;
+import org.nanonative.nano.core.model.Context;
+import org.nanonative.nano.helper.event.model.Channel;
+import org.nanonative.nano.helper.event.model.Event;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.Map;
+
+import static org.nanonative.devconsole.service.DevConsoleService.CONFIG_DEV_CONSOLE_MAX_BYTES;
+import static org.nanonative.devconsole.service.DevConsoleService.CONFIG_DEV_CONSOLE_MAX_EVENTS;
+import static org.nanonative.devconsole.service.DevConsoleService.CONFIG_DEV_CONSOLE_MAX_LOGS;
+import static org.nanonative.nano.helper.event.model.Channel.registerChannelId;
+
+// Shared setup - a Nano with just the dev console, retention limited by count only so sizes are comparable between runs
+public abstract class ConsoleState {
+
+    public static final Channel<String, Void> EVENT_BENCHMARK = registerChannelId("EVENT_BENCHMARK", String.class);
+
+    public Nano nano;
+    public DevConsoleService console;
+    public Context context;
+
+    protected void start(final int maxEvents) {
+        console = new DevConsoleService();
+        nano = new Nano(Map.of(
+            CONFIG_DEV_CONSOLE_MAX_EVENTS, maxEvents,
+            CONFIG_DEV_CONSOLE_MAX_LOGS, maxEvents,
+            CONFIG_DEV_CONSOLE_MAX_BYTES, Long.MAX_VALUE / 2
+        ), console);
+        context = nano.context(ConsoleState.class);
+    }
+
+    protected void fill(final int events) {
+        for (int i = 0; i < events; i++)
+            console.recordEvent(newEvent("payload-" + i));
+    }
+
+    public Event<String, Void> newEvent(final String payload) {
+        return context.newEvent(EVENT_BENCHMARK, () -> payload);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        nano.stop(ConsoleState.class).waitForStop();
+    }
+}
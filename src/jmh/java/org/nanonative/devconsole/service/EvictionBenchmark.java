@@ -0,0 +1,70 @@
+package org.nanonative.devconsole.service;
+
+import org.nanonative.nano.helper.event.model.Event;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// removeLastNElements takes the retention lock - measured while publishers keep recording into the same history.
+// The evicting thread puts back as many entries as it removed, so the history stays at RETAINED instead of draining.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EvictionBenchmark {
+
+    public static final int RETAINED = 10_000;
+    public static final int BATCH = 8;
+
+    @State(Scope.Group)
+    public static class Console extends ConsoleState {
+        @Setup(Level.Trial)
+        public void setup() {
+            start(RETAINED);
+            fill(RETAINED);
+        }
+    }
+
+    // Already recorded events, re-added at the head without another size estimate or id
+    @State(Scope.Thread)
+    public static class Refill {
+        public Event<?, ?>[] spare;
+        public int next;
+
+        @Setup(Level.Trial)
+        public void setup(final Console state) {
+            spare = new Event<?, ?>[64];
+            for (int i = 0; i < spare.length; i++)
+                spare[i] = state.newEvent("spare-" + i);
+        }
+    }
+
+    @Benchmark
+    @Group("contention")
+    @GroupThreads(7)
+    public void record(final Console state) {
+        state.console.recordEvent(state.newEvent("payload"));
+    }
+
+    @Benchmark
+    @Group("contention")
+    @GroupThreads(1)
+    public void evict(final Console state, final Refill refill) {
+        state.console.removeLastNElements(state.console.eventHistory, BATCH);
+        for (int i = 0; i < BATCH; i++)
+            state.console.eventHistory.addFirst(refill.spare[refill.next++ & (refill.spare.length - 1)]);
+    }
+}
@@ -0,0 +1,45 @@
+package org.nanonative.devconsole.service;
+
+import org.nanonative.devconsole.util.RoutesMatch;
+import org.nanonative.nano.services.http.model.HttpMethod;
+import org.nanonative.nano.services.http.model.HttpObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.nanonative.devconsole.service.DevConsoleService.DEFAULT_MAX_EVENTS;
+
+// Every application request passes through match() before it reaches the app, so the miss path is what matters
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MatchBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Console extends ConsoleState {
+        public HttpObject request;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            start(DEFAULT_MAX_EVENTS);
+            request = new HttpObject().methodType(HttpMethod.GET).path("/api/orders/42");
+        }
+    }
+
+    @Benchmark
+    public RoutesMatch nonConsoleRequest(final Console state) {
+        return state.console.match(state.request);
+    }
+}
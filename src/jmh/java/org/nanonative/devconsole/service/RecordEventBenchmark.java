@@ -0,0 +1,60 @@
+package org.nanonative.devconsole.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.nanonative.devconsole.service.DevConsoleService.DEFAULT_MAX_EVENTS;
+
+// Capture path with a full history, so every recorded event also evicts one
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RecordEventBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Console extends ConsoleState {
+        @Setup(Level.Trial)
+        public void setup() {
+            start(DEFAULT_MAX_EVENTS);
+            fill(DEFAULT_MAX_EVENTS);
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void threads01(final Console state) {
+        state.console.recordEvent(state.newEvent("payload"));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void threads04(final Console state) {
+        state.console.recordEvent(state.newEvent("payload"));
+    }
+
+    @Benchmark
+    @Threads(16)
+    public void threads16(final Console state) {
+        state.console.recordEvent(state.newEvent("payload"));
+    }
+
+    @Benchmark
+    @Threads(64)
+    public void threads64(final Console state) {
+        state.console.recordEvent(state.newEvent("payload"));
+    }
+}
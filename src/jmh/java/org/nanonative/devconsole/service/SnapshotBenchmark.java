@@ -0,0 +1,48 @@
+package org.nanonative.devconsole.service;
+
+import berlin.yuna.typemap.model.LinkedTypeMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Read side of the console - what every UI poll costs at a given retention size
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SnapshotBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Console extends ConsoleState {
+        @Param({"1000", "10000", "100000"})
+        public int retained;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            start(retained);
+            fill(retained);
+        }
+    }
+
+    @Benchmark
+    public String eventList(final Console state) {
+        return state.console.getEventList();
+    }
+
+    @Benchmark
+    public LinkedTypeMap systemInfo(final Console state) {
+        return state.console.getSystemInfo();
+    }
+}
@@ -4,17 +4,43 @@ import berlin.yuna.typemap.model.LinkedTypeMap;
 import berlin.yuna.typemap.model.TypeInfo;
 import berlin.yuna.typemap.model.TypeList;
 import berlin.yuna.typemap.model.TypeMapI;
+import com.sun.net.httpserver.HttpExchange;
+import org.nanonative.devconsole.util.AlertRules;
+import org.nanonative.devconsole.util.BinaryEncoder;
 import org.nanonative.devconsole.util.ClassInfo;
+import org.nanonative.devconsole.util.Compression;
+import org.nanonative.devconsole.util.CpuSampler;
 import org.nanonative.devconsole.util.DevConfig;
 import org.nanonative.devconsole.util.DevEvents;
+import org.nanonative.devconsole.util.DevHeapDump;
+import org.nanonative.devconsole.util.DevHeapHistogram;
 import org.nanonative.devconsole.util.DevHtml;
 import org.nanonative.devconsole.util.DevInfo;
+import org.nanonative.devconsole.util.DevLoadGen;
 import org.nanonative.devconsole.util.DevLogs;
+import org.nanonative.devconsole.util.DevMetrics;
+import org.nanonative.devconsole.util.DevSchedulers;
 import org.nanonative.devconsole.util.DevService;
+import org.nanonative.devconsole.util.DevTraces;
+import org.nanonative.devconsole.util.DevTopology;
 import org.nanonative.devconsole.util.DevUi;
+import org.nanonative.devconsole.util.EventTracer;
+import org.nanonative.devconsole.util.HeapDumper;
+import org.nanonative.devconsole.util.HeapHistogram;
+import org.nanonative.devconsole.util.LatencyHistogram;
+import org.nanonative.devconsole.util.DevCluster;
+import org.nanonative.devconsole.util.ListenerTopology;
+import org.nanonative.devconsole.util.LoadGenerator;
+import org.nanonative.devconsole.util.LogDeduplicator;
+import org.nanonative.devconsole.util.MetricsExporter;
 import org.nanonative.devconsole.util.NoMatch;
+import org.nanonative.devconsole.util.PeerFederation;
+import org.nanonative.devconsole.util.RateLimiter;
 import org.nanonative.devconsole.util.RoutesMatch;
+import org.nanonative.devconsole.util.SchedulerSampler;
 import org.nanonative.devconsole.util.ServiceFactory;
+import org.nanonative.devconsole.util.SingleFlight;
+import org.nanonative.devconsole.util.SizeEstimator;
 import org.nanonative.nano.core.NanoBase;
 import org.nanonative.nano.core.model.NanoThread;
 import org.nanonative.nano.core.model.Service;
@@ -27,7 +53,9 @@ import org.nanonative.nano.services.http.model.HttpObject;
 import java.io.IOException;
 import java.io.InputStream;
 import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
 import java.net.URL;
+import java.nio.file.NoSuchFileException;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
@@ -38,17 +66,28 @@ import java.util.Collections;
 import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Properties;
+import java.util.Queue;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.logging.Formatter;
 import java.util.logging.LogRecord;
 import java.util.stream.Collectors;
@@ -56,17 +95,27 @@ import java.util.stream.Collectors;
 import org.nanonative.nano.services.logging.LogFormatRegister;
 
 import static berlin.yuna.typemap.logic.JsonEncoder.toJson;
+import static org.nanonative.devconsole.util.ResponseHelper.ACCEPT;
+import static org.nanonative.devconsole.util.ResponseHelper.CONTENT_TYPE;
 import static org.nanonative.devconsole.util.ResponseHelper.getTypeFromFileExt;
+import static org.nanonative.devconsole.util.ResponseHelper.responseAsset;
+import static org.nanonative.devconsole.util.ResponseHelper.responseDownload;
+import static org.nanonative.devconsole.util.ResponseHelper.responseGone;
+import static org.nanonative.devconsole.util.ResponseHelper.responseTooManyRequests;
+import static org.nanonative.devconsole.util.ResponseHelper.responseUnavailable;
 import static org.nanonative.devconsole.util.ResponseHelper.responseOk;
 import static org.nanonative.devconsole.util.SystemUtil.computeBaseUrl;
 import static org.nanonative.devconsole.util.SystemUtil.getCpuUsagePercent;
-import static org.nanonative.devconsole.util.UiHelper.STATIC_FILES;
-import static org.nanonative.devconsole.util.UiHelper.loadStaticFiles;
+import static org.nanonative.devconsole.util.SystemUtil.VIRTUAL_EXECUTOR;
+import static org.nanonative.devconsole.util.SystemUtil.elapsedMs;
+import static org.nanonative.devconsole.util.UiHelper.getStaticFile;
+import static org.nanonative.devconsole.util.UiHelper.isStaticFile;
 import static org.nanonative.nano.core.model.Context.EVENT_APP_HEARTBEAT;
 import static org.nanonative.nano.core.model.Context.EVENT_APP_SERVICE_REGISTER;
 import static org.nanonative.nano.core.model.Context.EVENT_APP_SERVICE_UNREGISTER;
 import static org.nanonative.nano.core.model.Context.EVENT_CONFIG_CHANGE;
 import static org.nanonative.nano.helper.config.ConfigRegister.registerConfig;
+import static org.nanonative.nano.helper.event.model.Channel.registerChannelId;
 import static org.nanonative.nano.services.http.HttpServer.EVENT_HTTP_REQUEST;
 import static org.nanonative.nano.services.logging.LogService.EVENT_LOGGING;
 
@@ -75,22 +124,57 @@ public class DevConsoleService extends Service {
     // Config keys
     public static final String CONFIG_DEV_CONSOLE_MAX_EVENTS = registerConfig("dev_console_max_events", "Max number of events to retain in memory");
     public static final String CONFIG_DEV_CONSOLE_MAX_LOGS = registerConfig("dev_console_max_logs", "Max number of logs to retain in memory");
+    public static final String CONFIG_DEV_CONSOLE_MAX_BYTES = registerConfig("dev_console_max_bytes", "Max estimated bytes of events and logs to retain in memory");
     public static final String CONFIG_DEV_CONSOLE_URL = registerConfig("dev_console_url", "Endpoint for the dev console ui");
     public static final String CONFIG_DEV_CONSOLE_SERVICES_FILE = registerConfig("dev_console_svc_file", "Output file name of services plugin");
+    public static final String CONFIG_DEV_CONSOLE_RESPONSE_TTL_MS = registerConfig("dev_console_response_ttl_ms", "How long computed console responses are reused in milliseconds");
+    public static final String CONFIG_DEV_CONSOLE_RATE_LIMIT = registerConfig("dev_console_rate_limit", "Max console requests per second per client, 0 disables the limit");
+    public static final String CONFIG_DEV_CONSOLE_TRUST_FORWARDED = registerConfig("dev_console_trust_forwarded", "Key the rate limit by X-Forwarded-For / X-Real-IP, only enable behind a proxy that sets them");
+    public static final String CONFIG_DEV_CONSOLE_PROFILE_LISTENERS = registerConfig("dev_console_profile_listeners", "Wrap event listeners to measure invocation counts and latency");
+    public static final String CONFIG_DEV_CONSOLE_TRACING = registerConfig("dev_console_tracing", "Link events sent from within listeners into traces");
+    public static final String CONFIG_DEV_CONSOLE_PEERS = registerConfig("dev_console_peers", "Comma separated base URLs of peer Nano nodes to federate");
+    public static final String CONFIG_DEV_CONSOLE_PEER_TIMEOUT_MS = registerConfig("dev_console_peer_timeout_ms", "Per peer request timeout in milliseconds");
+    public static final String CONFIG_DEV_CONSOLE_PEER_TTL_MS = registerConfig("dev_console_peer_ttl_ms", "How long peer responses are cached in milliseconds");
+    public static final String CONFIG_DEV_CONSOLE_LOG_DEDUP_MS = registerConfig("dev_console_log_dedup_ms", "Window in milliseconds for collapsing repeated log lines, 0 disables");
+    public static final String CONFIG_DEV_CONSOLE_ALERTS = registerConfig("dev_console_alerts", "Alert rules separated by ';', e.g. cpuUsage > 85% for 30s; p99:EVENT_HTTP_REQUEST > 200ms");
+
+    // Channels
+    public static final Channel<byte[], Void> EVENT_DEV_CONSOLE_LOADGEN = registerChannelId("EVENT_DEV_CONSOLE_LOADGEN", byte[].class);
+    public static final Channel<LinkedTypeMap, Void> EVENT_DEV_CONSOLE_ALERT = registerChannelId("EVENT_DEV_CONSOLE_ALERT", LinkedTypeMap.class);
 
     // Constants
     public static final String BASE_URL = "/dev-console";
     public static final int DEFAULT_MAX_EVENTS = 1000;
     public static final int DEFAULT_MAX_LOGS = 1000;
+    public static final long DEFAULT_MAX_BYTES = Math.min(64L * 1024 * 1024, Runtime.getRuntime().maxMemory() / 8);
     public static final String DEFAULT_UI_URL = "/ui";
     public static final String DEV_EVENTS_URL = "/events";
     public static final String DEV_INFO_URL = "/system-info";
     public static final String DEV_LOGS_URL = "/logs";
     public static final String DEV_CONFIG_URL = "/config";
     public static final String DEV_SERVICE_URL = "/service";
+    public static final String DEV_CLUSTER_URL = "/cluster";
+    public static final String DEV_METRICS_URL = "/metrics";
+    public static final String DEV_TOPOLOGY_URL = "/topology";
+    public static final String DEV_SCHEDULERS_URL = "/schedulers";
+    public static final String DEV_TRACES_URL = "/traces";
+    public static final String DEV_LOADGEN_URL = "/loadgen";
+    public static final String DEV_HEAP_HISTOGRAM_URL = "/heap/histogram";
+    public static final String DEV_HEAP_DUMP_URL = "/heap/dump";
+    public static final long HEAP_HISTOGRAM_TTL_MS = 10_000;
+    public static final long DEFAULT_RESPONSE_TTL_MS = 0;
+    public static final double DEFAULT_RATE_LIMIT = 0;
+    public static final long DEFAULT_PEER_TIMEOUT_MS = 1000;
+    public static final long DEFAULT_PEER_TTL_MS = 2000;
+    public static final long DEFAULT_LOG_DEDUP_MS = 1000;
+    public static final int TOP_LOGGERS = 10;
+    public static final int MAX_TRACES_RESPONSE = 50;
     public static final String SVC_DIR = "META-INF/io/github/absketches/plugin/";
     public static final String DEFAULT_SVC_FILE = "services.properties";
     public static final String DEV_SVC_FILE = "services-devconsole.properties";
+    public static final String SIZE_KEY = "sizeBytes";
+    public static final String ID_KEY = "devConsoleId";
+    public static final String VERSION_KEY = "devConsoleVersion";
 
     public static final Formatter logFormatter = LogFormatRegister.getLogFormatter("console");
     public static final DateTimeFormatter dateTimeFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss").withZone(ZoneId.systemDefault());
@@ -99,40 +183,121 @@ public class DevConsoleService extends Service {
     protected String basePath;
     protected Integer maxEvents;
     protected Integer maxLogs;
+    protected Long maxBytes;
     protected String svcFileName;
+    protected long responseTtlMs;
+    protected boolean profileListeners;
+    protected boolean tracing;
+    protected double rateLimit = -1;
+    protected boolean trustForwarded;
+    protected List<String> peers = List.of();
+    protected long peerTimeoutMs;
+    protected long peerTtlMs;
 
     // Data structures
     protected Consumer<Event<Void, Void>> channelListener;
     protected final Map<Channel<?, ?>, Consumer<? extends Event<?, ?>>> eventListenerMap = new ConcurrentHashMap<>();
     protected final Deque<Event<?, ?>> eventHistory = new ConcurrentLinkedDeque<>();
-    protected final Deque<String> logHistory = new ConcurrentLinkedDeque<>();
+    protected final Deque<LogDeduplicator.Entry> logHistory = new ConcurrentLinkedDeque<>();
+    // Retained events without response yet, oldest first - their response is sized once it arrives
+    protected final Queue<Event<?, ?>> awaitingResponse = new ConcurrentLinkedQueue<>();
+    protected final LogDeduplicator logDeduplicator = new LogDeduplicator(DEFAULT_LOG_DEDUP_MS);
     protected final AtomicInteger totalEvents = new AtomicInteger(0);
+    protected final AtomicLong eventIds = new AtomicLong(0);
+    // Bumped on capture and when a retained event gets acknowledged or answered, guarded by eventIds like the ids
+    protected final AtomicLong eventVersions = new AtomicLong(0);
+    protected final AtomicLong eventBytes = new AtomicLong(0);
+    protected final AtomicLong logBytes = new AtomicLong(0);
+    protected final Map<String, LongAdder> channelEvents = new ConcurrentHashMap<>();
+    protected final MetricsExporter metricsExporter = new MetricsExporter();
+    protected final SingleFlight singleFlight = new SingleFlight();
+    protected volatile RateLimiter rateLimiter = new RateLimiter(0, 0);
+    protected final ListenerTopology topology = new ListenerTopology();
+    protected final SchedulerSampler schedulerSampler = new SchedulerSampler();
+    protected final EventTracer tracer = new EventTracer(this::isTraceable);
+    protected final LoadGenerator loadGenerator = new LoadGenerator(VIRTUAL_EXECUTOR);
+    protected final AlertRules alertRules = new AlertRules();
+    // Alert windows: own CPU sample interval and the listener histogram buckets at the last evaluation
+    protected final CpuSampler alertCpu = new CpuSampler();
+    protected final Map<ListenerTopology.ProfiledListener, long[]> latencyWindows = Collections.synchronizedMap(new WeakHashMap<>());
+    protected final HeapDumper heapDumper;
     protected final ReentrantLock lock = new ReentrantLock();
-    protected ServiceFactory svcFactory;
+    protected volatile ServiceFactory svcFactory;
+    protected volatile PeerFederation federation = PeerFederation.NONE;
 
     // Exclude internal services which does not get affected on stop like LogService
     protected final Set<String> excludedServices = Set.of("LogService", "FileWatcher", "HttpServer", "HttpClient");
 
     // Populate this only once at startup - rest all read ops and not expected to run into concurrency issues
-    protected Set<String> servicesIndex = new LinkedHashSet<>();
+    protected volatile Set<String> servicesIndex = new LinkedHashSet<>();
+
+    // Startup bookkeeping - warm-up runs off the application's critical path
+    protected final Map<String, Long> startupPhases = new ConcurrentHashMap<>();
+    protected final AtomicBoolean announced = new AtomicBoolean(false);
+    protected volatile CompletableFuture<Void> serviceIndexReady;
+    protected long startedAtNs;
+
+    public DevConsoleService() {
+        this(null);
+    }
+
+    // Tests pass a writer that skips the real heap dump, null uses the HotSpot MXBean
+    DevConsoleService(final HeapDumper.HeapWriter heapWriter) {
+        this.heapDumper = null == heapWriter ? new HeapDumper(VIRTUAL_EXECUTOR) : new HeapDumper(VIRTUAL_EXECUTOR, heapWriter);
+    }
 
     @Override
     public void start() {
+        final long startNs = System.nanoTime();
+        startedAtNs = startNs;
         checkForNewChannelsAndSubscribe();
-        populateServiceIndex();
+        startupPhases.put("subscribeChannels", elapsedMs(startNs));
+        channelListener = context.subscribeEvent(EVENT_APP_HEARTBEAT, (ev, __) -> {
+            checkForNewChannelsAndSubscribe();
+            announceWhenReady();
+            topology.wrapNew(context.nano().listeners());
+            schedulerSampler.sampleIfDue(context.nano().schedulers());
+            settleResponses();
+            evaluateAlerts();
+        });
+
+        if (profileListeners)
+            topology.profiling(true, context.nano().listeners());
+        if (tracing)
+            topology.tracing(tracer, context.nano().listeners());
+
+        // Classpath scan runs in the background, request paths answer without the index until it is built
+        serviceIndexReady = CompletableFuture.runAsync(() -> timed("serviceIndex", this::populateServiceIndex), VIRTUAL_EXECUTOR);
+        startupPhases.put("start", elapsedMs(startNs));
+        announceWhenReady();
+    }
+
+    // Reacts on heartbeat instead of spinning until the HttpServer is ready
+    protected void announceWhenReady() {
+        if (announced.get())
+            return;
+        final HttpServer httpServer = context.nano().service(HttpServer.class);
+        if (null != httpServer && httpServer.isReady() && announced.compareAndSet(false, true)) {
+            startupPhases.put("httpReady", elapsedMs(startedAtNs));
+            context.info(() -> "[{}] started at {}{}{} phases(ms)={}", name(), computeBaseUrl(httpServer), BASE_URL, basePath, startupPhases);
+        }
+    }
+
+    protected void timed(final String phase, final Runnable task) {
+        final long startNs = System.nanoTime();
         try {
-            loadStaticFiles();
+            task.run();
         } catch (Exception e) {
-            throw new RuntimeException(e);
+            context.warn(() -> "[{}] startup phase [{}] failed: {}", name(), phase, e);
+        } finally {
+            startupPhases.put(phase, elapsedMs(startNs));
         }
-        channelListener = context.subscribeEvent(EVENT_APP_HEARTBEAT, (ev, __) -> checkForNewChannelsAndSubscribe());
-
-        HttpServer httpServer;
-        do {
-            httpServer = context.nano().service(HttpServer.class);
-        } while (null == httpServer || !httpServer.isReady());
+    }
 
-        context.info(() -> "[{}] started at {}{}{} ", name(), computeBaseUrl(httpServer), BASE_URL, basePath);
+    // Request paths never wait for the classpath scan, they answer without the index until it is built
+    protected boolean isServiceIndexReady() {
+        final CompletableFuture<Void> ready = serviceIndexReady;
+        return null != ready && ready.isDone();
     }
 
     protected void populateServiceIndex() {
@@ -143,9 +308,14 @@ public class DevConsoleService extends Service {
             urls.addAll(Collections.list(cl.getResources(SVC_DIR + DEV_SVC_FILE)));
             if (!urls.isEmpty()) {
                 Set<String> serviceFqcnList = fetchCorrectPropFile(urls);
-                svcFactory = new ServiceFactory(new ArrayList<>(serviceFqcnList));
-                servicesIndex = serviceFqcnList.stream().map(ServiceFactory::getSimpleName).collect(Collectors.toSet());
-                servicesIndex.removeAll(excludedServices);
+                final ServiceFactory factory = new ServiceFactory(new ArrayList<>(serviceFqcnList));
+                svcFactory = factory;
+                // Resolves classes and constructors in the background, first use only waits for its own entry
+                final long warmUpNs = System.nanoTime();
+                factory.warmUp(VIRTUAL_EXECUTOR).whenComplete((__, error) -> startupPhases.put("serviceWarmUp", elapsedMs(warmUpNs)));
+                final Set<String> index = serviceFqcnList.stream().map(ServiceFactory::getSimpleName).collect(Collectors.toSet());
+                index.removeAll(excludedServices);
+                servicesIndex = index;
             }
         } catch (IOException ex) {
             context.warn(() -> "loadServicesIfPresent::IO exception: {}", ex);
@@ -164,9 +334,13 @@ public class DevConsoleService extends Service {
     @SuppressWarnings("unchecked")
     protected void recordEvent(final Event<?, ?> event) {
         totalEvents.incrementAndGet();
+        channelEvents.computeIfAbsent(event.channel().name(), k -> new LongAdder()).increment();
         // Exclude EVENT_APP_HEARTBEAT events from the list
         if (event.channel().equals(EVENT_APP_HEARTBEAT))
             return;
+        // Generated and replayed load is counted above but never retained - it would evict everything else
+        if (event.channel().equals(EVENT_DEV_CONSOLE_LOADGEN) || null != event.get(LoadGenerator.LOADGEN_KEY))
+            return;
         // Exclude Dev console Http events from the list
         if (event.channel().equals(EVENT_HTTP_REQUEST) && event.payload() instanceof HttpObject payload) {
             RoutesMatch route = match(payload);
@@ -177,17 +351,106 @@ public class DevConsoleService extends Service {
         }
 
         if (!event.channel().equals(EVENT_LOGGING)) {
+            // Covers events on channels created after the last heartbeat, their listener sets aren't wrapped yet
+            if (null != topology.tracer())
+                tracer.span(event);
             if (eventHistory.size() >= maxEvents) {
                 removeLastNElements(eventHistory, eventHistory.size() - maxEvents + 1);
             }
+            final long size = SizeEstimator.EVENT_OVERHEAD + SizeEstimator.estimate(event.payload()) + SizeEstimator.estimate(event.response());
             event.put("createdTs", Instant.now());
-            eventHistory.addFirst(event);
+            event.put(SIZE_KEY, size);
+            // Ids follow the history order, incremental readers can stop at the first id they already have
+            synchronized (eventIds) {
+                event.put(ID_KEY, eventIds.incrementAndGet());
+                event.put(VERSION_KEY, eventVersions.incrementAndGet());
+                eventHistory.addFirst(event);
+                if (!event.isAcknowledged() && null == event.response())
+                    awaitingResponse.add(event);
+            }
+            eventBytes.addAndGet(size);
         } else {
+            // Repeats of a retained line only bump its counter - no formatting, no eviction
+            final LogDeduplicator.Entry log = logDeduplicator.capture((LogRecord) event.payload(), logFormatter::format);
+            if (null == log)
+                return;
             if (logHistory.size() >= maxLogs) {
                 removeLastNElements(logHistory, logHistory.size() - maxLogs + 1);
             }
-            logHistory.addFirst(logFormatter.format((LogRecord) event.payload()));
+            logHistory.addFirst(log);
+            logDeduplicator.publish(log);
+            logBytes.addAndGet(log.sizeBytes());
+        }
+        enforceByteBudget();
+    }
+
+    // Evicts the oldest entries of whichever history holds more bytes until both fit the budget
+    protected void enforceByteBudget() {
+        if (retainedBytes() <= maxBytes)
+            return;
+        lock.lock();
+        try {
+            while (retainedBytes() > maxBytes) {
+                final Deque<?> deque = eventBytes.get() >= logBytes.get() ? eventHistory : logHistory;
+                if (null == evictLast(deque) && null == evictLast(deque == eventHistory ? logHistory : eventHistory))
+                    break;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    protected Object evictLast(final Deque<?> deque) {
+        final Object removed = deque.pollLast();
+        switch (removed) {
+            case null -> {}
+            case LogDeduplicator.Entry log -> {
+                log.evicted();
+                logBytes.addAndGet(-log.sizeBytes());
+            }
+            case Event<?, ?> ev -> {
+                eventBytes.addAndGet(-eventSize(ev));
+                // Evictions go oldest first, so anything evicted is at the head of the queue
+                Event<?, ?> head;
+                while (null != (head = awaitingResponse.peek()) && eventId(head) <= eventId(ev))
+                    awaitingResponse.poll();
+            }
+            default -> {}
+        }
+        return removed;
+    }
+
+    // Responses are usually set after capture, answered events get their response added to the retained bytes and a new version
+    protected void settleResponses() {
+        if (awaitingResponse.isEmpty())
+            return;
+        lock.lock();
+        try {
+            for (Iterator<Event<?, ?>> it = awaitingResponse.iterator(); it.hasNext(); ) {
+                final Event<?, ?> ev = it.next();
+                if (!ev.isAcknowledged() && null == ev.response())
+                    continue;
+                final long responseBytes = SizeEstimator.estimate(ev.response());
+                ev.put(SIZE_KEY, eventSize(ev) + responseBytes);
+                eventBytes.addAndGet(responseBytes);
+                // Incremental readers get the event again with its response
+                synchronized (eventIds) {
+                    ev.put(VERSION_KEY, eventVersions.incrementAndGet());
+                }
+                it.remove();
+            }
+        } finally {
+            lock.unlock();
         }
+        enforceByteBudget();
+    }
+
+    protected static long eventSize(final Event<?, ?> ev) {
+        return ev.get(SIZE_KEY) instanceof Number size ? size.longValue() : 0L;
+    }
+
+    public long retainedBytes() {
+        return eventBytes.get() + logBytes.get();
     }
 
     // Add dev console routes below
@@ -196,52 +459,232 @@ public class DevConsoleService extends Service {
         if (request.pathMatch(BASE_URL + DEV_EVENTS_URL)) return new DevEvents();
         if (request.pathMatch(BASE_URL + DEV_LOGS_URL)) return new DevLogs();
         if (request.pathMatch(BASE_URL + DEV_CONFIG_URL)) return new DevConfig();
-        if (request.pathMatch(BASE_URL + DEV_SERVICE_URL + "/{serviceName}")) {
-            final String svcName = request.pathParam("serviceName");
-            if (getFilteredServices().stream().anyMatch(rSvc -> rSvc.name().equals(svcName)) || servicesIndex.stream().anyMatch(svcName::equals)) {
-                return new DevService(svcName);
-            }
-        }
+        if (request.pathMatch(BASE_URL + DEV_CLUSTER_URL)) return new DevCluster();
+        if (request.pathMatch(BASE_URL + DEV_METRICS_URL)) return new DevMetrics();
+        if (request.pathMatch(BASE_URL + DEV_TOPOLOGY_URL)) return new DevTopology();
+        if (request.pathMatch(BASE_URL + DEV_SCHEDULERS_URL)) return new DevSchedulers();
+        if (request.pathMatch(BASE_URL + DEV_TRACES_URL)) return new DevTraces();
+        if (request.pathMatch(BASE_URL + DEV_LOADGEN_URL)) return new DevLoadGen();
+        if (request.pathMatch(BASE_URL + DEV_HEAP_HISTOGRAM_URL)) return new DevHeapHistogram();
+        if (request.pathMatch(BASE_URL + DEV_HEAP_DUMP_URL)) return new DevHeapDump();
+        // Only tells console requests apart, whether the service exists is checked by the handlers
+        if (request.pathMatch(BASE_URL + DEV_SERVICE_URL + "/{serviceName}"))
+            return new DevService(request.pathParam("serviceName"));
         if (request.pathMatch(BASE_URL + basePath)) return new DevHtml();
         if (request.pathMatch(BASE_URL + "/{fileName}")) {
             String fileName = request.pathParam("fileName");
-            if (STATIC_FILES.containsKey(fileName))
+            if (isStaticFile(fileName))
                 return new DevUi(fileName);
         }
         return new NoMatch();
     }
 
     protected void handleHttpRequest(final Event<HttpObject, HttpObject> event, final RoutesMatch route) {
+        final long retryAfter = rateLimiter.acquire(clientId(event.payload()));
+        if (retryAfter > 0) {
+            event.respond(responseTooManyRequests(event.payload(), retryAfter));
+            return;
+        }
         switch (event.payload().methodType()) {
             case GET -> handleGet(event, route);
+            case POST -> handlePost(event, route);
             case PATCH -> handlePatch(event, route);
             case DELETE -> handleDelete(event, route);
         }
     }
 
     protected void handleGet(final Event<HttpObject, HttpObject> event, final RoutesMatch route) {
+        final BinaryEncoder binary = BinaryEncoder.forAccept(event.payload().header(ACCEPT));
+        if (null != binary && handleBinaryGet(event, route, binary))
+            return;
         switch (route) {
             case DevInfo __ ->
-                event.respond(responseOk(event.payload(), toJson(getSystemInfo()), ContentType.APPLICATION_JSON));
-            case DevEvents __ ->
-                event.respond(responseOk(event.payload(), getEventList(), ContentType.APPLICATION_JSON));
-            case DevLogs __ ->
-                event.respond(responseOk(event.payload(), toJson(new ArrayList<>(logHistory)), ContentType.APPLICATION_JSON));
+                event.respond(responseOk(event.payload(), shared("info", () -> toJson(getSystemInfo())), ContentType.APPLICATION_JSON));
+            case DevEvents __ -> {
+                final Long since = queryLong(event.payload(), "since");
+                event.respond(responseOk(event.payload(), null == since
+                    ? shared("events", this::getEventList)
+                    : coalesced("events:" + since, () -> toJson(getEventsSince(since))), ContentType.APPLICATION_JSON));
+            }
+            case DevLogs __ -> {
+                final Long since = queryLong(event.payload(), "since");
+                event.respond(responseOk(event.payload(), null == since
+                    ? shared("logs", () -> toJson(getLogLines()))
+                    : coalesced("logs:" + since, () -> toJson(getLogsSince(since))), ContentType.APPLICATION_JSON));
+            }
             case DevConfig __ -> event.respond(responseOk(event.payload(), getConfig(), ContentType.APPLICATION_JSON));
+            case DevCluster __ ->
+                event.respond(responseOk(event.payload(), shared("cluster", () -> toJson(getClusterView())), ContentType.APPLICATION_JSON));
+            case DevMetrics __ -> event.respond(metricsResponse(event.payload()));
+            case DevTopology __ ->
+                event.respond(responseOk(event.payload(), toJson(getTopology()), ContentType.APPLICATION_JSON));
+            case DevTraces __ ->
+                event.respond(responseOk(event.payload(), toJson(getTraces()), ContentType.APPLICATION_JSON));
+            case DevLoadGen __ -> event.respond(responseOk(event.payload(), toJson(getLoadGenStatus()), ContentType.APPLICATION_JSON));
+            case DevHeapHistogram __ -> {
+                try {
+                    event.respond(responseOk(event.payload(), getHeapHistogram(queryLong(event.payload(), "limit")), ContentType.APPLICATION_JSON));
+                } catch (IllegalStateException e) {
+                    event.error(e);
+                }
+            }
+            case DevHeapDump __ -> {
+                // Without ?chunk= the status tells the dump id and how many chunks to fetch, their concatenation is the .hprof.gz
+                final Long chunk = queryLong(event.payload(), "chunk");
+                if (null == chunk)
+                    event.respond(responseOk(event.payload(), toJson(heapDumper.status()), ContentType.APPLICATION_JSON));
+                else
+                    respondHeapDumpChunk(event, event.payload().queryParam("id"), chunk);
+            }
+            case DevSchedulers __ ->
+                event.respond(responseOk(event.payload(), shared("schedulers", () -> toJson(getSchedulers())), ContentType.APPLICATION_JSON));
             case DevHtml __ ->
-                event.respond(responseOk(event.payload(), STATIC_FILES.get("index.html"), ContentType.TEXT_HTML));
+                event.respond(responseAsset(event.payload(), getStaticFile("index.html"), ContentType.TEXT_HTML));
             case DevUi fileRequest ->
-                event.respond(responseOk(event.payload(), STATIC_FILES.get(fileRequest.fileName()), getTypeFromFileExt(fileRequest.fileName())));
+                event.respond(responseAsset(event.payload(), getStaticFile(fileRequest.fileName()), getTypeFromFileExt(fileRequest.fileName())));
             case NoMatch __ -> {}
             default -> context.info(() -> "The HttpMethod for this endpoint is incorrect");
         }
     }
 
+    protected boolean handleBinaryGet(final Event<HttpObject, HttpObject> event, final RoutesMatch route, final BinaryEncoder encoder) {
+        final String type = encoder.mediaType();
+        final Long since = queryLong(event.payload(), "since");
+        final byte[] body = switch (route) {
+            case DevInfo __ -> shared("info:" + type, () -> encoder.write(getSystemInfo()).toByteArray());
+            case DevEvents __ when null != since -> coalesced("events:" + since + ":" + type, () -> encodeEventsSince(encoder, since).toByteArray());
+            case DevEvents __ -> shared("events:" + type, () -> encodeEvents(encoder).toByteArray());
+            case DevLogs __ when null != since -> coalesced("logs:" + since + ":" + type, () -> encoder.write(getLogsSince(since)).toByteArray());
+            case DevLogs __ -> shared("logs:" + type, () -> encoder.write(getLogLines()).toByteArray());
+            case DevConfig __ -> encoder.write(getConfigMap()).toByteArray();
+            default -> null;
+        };
+        if (null == body)
+            return false;
+        event.respond(responseOk(event.payload(), body, type));
+        return true;
+    }
+
+    // Identical concurrent GETs share one computation, optionally reused for dev_console_response_ttl_ms
+    protected <T> T shared(final String key, final Supplier<T> compute) {
+        return singleFlight.get(key, responseTtlMs, compute);
+    }
+
+    // Incremental requests are keyed by their cursor, which is different for almost every poll - shared but never cached
+    protected <T> T coalesced(final String key, final Supplier<T> compute) {
+        return singleFlight.get(key, 0, compute);
+    }
+
+    // Missing or malformed numbers are treated as absent, e.g. incremental clients without ?since= get the full list
+    protected static Long queryLong(final HttpObject request, final String key) {
+        final String value = request.queryParam(key);
+        if (null == value || value.isBlank())
+            return null;
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    // Forwarded headers are client controlled unless a proxy sets them, without dev_console_trust_forwarded the bucket is keyed by the peer address
+    protected String clientId(final HttpObject request) {
+        if (trustForwarded) {
+            final String forwarded = request.header("x-forwarded-for");
+            if (null != forwarded && !forwarded.isBlank())
+                return forwarded.split(",")[0].trim();
+            final String realIp = request.header("x-real-ip");
+            if (null != realIp && !realIp.isBlank())
+                return realIp.trim();
+        }
+        return remoteAddress(request);
+    }
+
+    // Only the host, every new connection gets a new port; requests without an exchange (sent in-process) share "direct"
+    protected String remoteAddress(final HttpObject request) {
+        final HttpExchange exchange = request.exchange();
+        final InetSocketAddress remote = null == exchange ? null : exchange.getRemoteAddress();
+        if (null == remote)
+            return "direct";
+        return null == remote.getAddress() ? remote.getHostString() : remote.getAddress().getHostAddress();
+    }
+
+    protected BinaryEncoder encodeEvents(final BinaryEncoder encoder) {
+        return encodeEventList(encoder.mapHeader(2), "events", new ArrayList<>(eventHistory));
+    }
+
+    // Same layout as the JSON cursor, the entries use the channel dictionary of the full list
+    protected BinaryEncoder encodeEventsSince(final BinaryEncoder encoder, final long since) {
+        final EventsSince changes = eventsSince(since);
+        encoder.mapHeader(6)
+            .string("version").longValue(changes.version())
+            .string("lastId").longValue(changes.lastId())
+            .string("firstId").longValue(changes.firstId())
+            .string("reset").bool(changes.reset());
+        return encodeEventList(encoder, "entries", changes.events());
+    }
+
+    // Binary clients get channel names once as a dictionary, events reference them by their index in "channels"
+    protected BinaryEncoder encodeEventList(final BinaryEncoder encoder, final String key, final List<Event<?, ?>> events) {
+        final Map<String, Integer> channelIds = new LinkedHashMap<>();
+        for (Event<?, ?> e : events)
+            channelIds.putIfAbsent(e.channel().name(), channelIds.size());
+        encoder.string("channels").write(channelIds.keySet());
+        encoder.string(key).arrayHeader(events.size());
+        for (Event<?, ?> e : events) {
+            encoder.mapHeader(7)
+                .string("id").longValue(eventId(e))
+                .string("channel").longValue(channelIds.get(e.channel().name()))
+                .string("isAck").bool(e.isAcknowledged())
+                .string("isBroadcast").bool(e.isBroadcast())
+                .string("eventTimestamp").write(e.get("createdTs"))
+                .string("payload").string(abbreviate(e.payload()))
+                .string("response").string(abbreviate(e.response()));
+        }
+        return encoder;
+    }
+
+    protected void handlePost(final Event<HttpObject, HttpObject> event, final RoutesMatch route) {
+        if (route instanceof DevLoadGen) {
+            try {
+                startLoad(event.payload().bodyAsJson());
+                event.respond(responseOk(event.payload(), toJson(getLoadGenStatus()), ContentType.APPLICATION_JSON));
+            } catch (IllegalStateException e) {
+                event.error(e);
+            }
+        } else if (route instanceof DevHeapDump) {
+            // {"live": false} includes unreachable objects, default is a live dump
+            final TypeInfo<?> body = event.payload().bodyAsJson();
+            try {
+                event.respond(responseOk(event.payload(), toJson(heapDumper.start(!body.isPresent("live") || body.asBoolean("live"))), ContentType.APPLICATION_JSON));
+            } catch (IllegalStateException e) {
+                event.error(e);
+            }
+        }
+    }
+
     protected void handlePatch(final Event<HttpObject, HttpObject> event, final RoutesMatch route) {
         switch (route) {
-            case DevConfig __ ->
-                event.respond(responseOk(event.payload(), updateConfig(event.payload().bodyAsJson()), event.payload().contentType()));
+            case DevConfig __ -> {
+                try {
+                    event.respond(responseOk(event.payload(), updateConfig(event.payload().bodyAsJson()), event.payload().contentType()));
+                } catch (IllegalArgumentException e) {
+                    event.error(e);
+                }
+            }
             case DevService devService -> startService(event, devService.name());
+            case DevTraces __ -> {
+                final TypeInfo<?> body = event.payload().bodyAsJson();
+                if (body.isPresent("enabled"))
+                    topology.tracing(body.asBoolean("enabled") ? tracer : null, context.nano().listeners());
+                event.respond(responseOk(event.payload(), toJson(getTraces()), ContentType.APPLICATION_JSON));
+            }
+            case DevTopology __ -> {
+                final TypeInfo<?> body = event.payload().bodyAsJson();
+                if (body.isPresent("profiling"))
+                    topology.profiling(body.asBoolean("profiling"), context.nano().listeners());
+                event.respond(responseOk(event.payload(), toJson(getTopology()), ContentType.APPLICATION_JSON));
+            }
             default -> {}
         }
     }
@@ -249,15 +692,20 @@ public class DevConsoleService extends Service {
     protected void startService(final Event<HttpObject, HttpObject> event, final String name) {
         if (getFilteredServices().stream().map(Service::name).anyMatch(svcName -> svcName.equals(name))) {
             event.error(new RuntimeException("{} already running"));
+        } else if (!isServiceIndexReady()) {
+            event.respond(responseUnavailable(event.payload(), 1));
         } else if (null == svcFactory) {
             event.error(new RuntimeException("Service index does not exist"));
-            context.error(() -> "This endpoint should not have been invoked - hacker alert");
+        } else if (!servicesIndex.contains(name)) {
+            event.error(new RuntimeException("Service " + name + " is not in the service index"));
         } else {
             ClassInfo info = svcFactory.getClassInfo(name);
             if (null != info) {
                 Service service = svcFactory.newInstance(name, info.clazz());
                 context.newEvent(EVENT_APP_SERVICE_REGISTER, () -> service).broadcast(true).async(true).send();
                 event.respond(responseOk(event.payload(), "success:true", event.payload().contentType()));
+            } else {
+                event.error(new RuntimeException("Service could not be resolved: " + svcFactory.failures().getOrDefault(name, name)));
             }
         }
     }
@@ -271,9 +719,59 @@ public class DevConsoleService extends Service {
             } else {
                 event.error(new RuntimeException("{} not running"));
             }
+        } else if (route instanceof DevLoadGen) {
+            loadGenerator.cancel();
+            event.respond(responseOk(event.payload(), toJson(getLoadGenStatus()), ContentType.APPLICATION_JSON));
+        } else if (route instanceof DevHeapDump) {
+            try {
+                heapDumper.delete();
+                event.respond(responseOk(event.payload(), toJson(heapDumper.status()), ContentType.APPLICATION_JSON));
+            } catch (IllegalStateException e) {
+                event.error(e);
+            }
         }
     }
 
+    // {"mode": "replay", "speed": 1, "channel": "..."} or {"mode": "synthetic", "rate": 1000, "durationMs": 5000, "payloadBytes": 256, "concurrency": 8}
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    protected void startLoad(final TypeInfo<?> request) {
+        final int concurrency = Math.clamp(request.isPresent("concurrency") ? request.asInt("concurrency") : 8, 1, LoadGenerator.MAX_CONCURRENCY);
+        if ("replay".equals(request.isPresent("mode") ? request.asString("mode") : "synthetic")) {
+            final String channel = request.isPresent("channel") ? request.asString("channel") : null;
+            final List<Event<?, ?>> events = new ArrayList<>(eventHistory).reversed().stream()
+                .filter(e -> null == channel || channel.equals(e.channel().name()))
+                .filter(e -> isReplayable(e.channel()))
+                .toList();
+            final double speed = Math.max(0, request.isPresent("speed") ? request.asDouble("speed") : 1);
+            loadGenerator.replay(events, e -> e.get("createdTs") instanceof Instant ts ? ts.toEpochMilli() : 0, speed, concurrency, e -> {
+                final Event replayed = context.newEvent((Channel) e.channel(), e::payload);
+                replayed.put(LoadGenerator.LOADGEN_KEY, true);
+                replayed.send();
+                return replayed.isAcknowledged();
+            });
+        } else {
+            final double rate = Math.max(0, request.isPresent("rate") ? request.asDouble("rate") : 1000);
+            final long durationMs = Math.clamp(request.isPresent("durationMs") ? request.asLong("durationMs") : 5000, 1, LoadGenerator.MAX_DURATION_MS);
+            final int payloadBytes = Math.clamp(request.isPresent("payloadBytes") ? request.asInt("payloadBytes") : 256, 0, LoadGenerator.MAX_PAYLOAD_BYTES);
+            loadGenerator.synthetic(rate, durationMs, payloadBytes, concurrency, payload -> {
+                final Event<byte[], Void> generated = context.newEvent(EVENT_DEV_CONSOLE_LOADGEN, () -> payload);
+                generated.put(LoadGenerator.LOADGEN_KEY, true);
+                generated.send();
+                return generated.isAcknowledged();
+            });
+        }
+    }
+
+    // Lifecycle and config events would re-register services or reconfigure the app when replayed
+    protected static boolean isReplayable(final Channel<?, ?> channel) {
+        return !channel.equals(EVENT_CONFIG_CHANGE) && !channel.name().startsWith("EVENT_APP_");
+    }
+
+    public LinkedTypeMap getLoadGenStatus() {
+        final LoadGenerator.Run run = loadGenerator.current();
+        return null == run ? new LinkedTypeMap().putR("running", false) : run.status();
+    }
+
     protected String updateConfig(final TypeInfo<?> request) {
         Map<String, Object> configChangeMap = new HashMap<>();
         if (request.isPresent("maxEvents")) {
@@ -282,33 +780,148 @@ public class DevConsoleService extends Service {
         if (request.isPresent("maxLogs")) {
             configChangeMap.put(CONFIG_DEV_CONSOLE_MAX_LOGS, request.asInt("maxLogs"));
         }
+        if (request.isPresent("maxBytes")) {
+            configChangeMap.put(CONFIG_DEV_CONSOLE_MAX_BYTES, request.asLong("maxBytes"));
+        }
+        if (request.isPresent("logDedupMs")) {
+            configChangeMap.put(CONFIG_DEV_CONSOLE_LOG_DEDUP_MS, request.asLong("logDedupMs"));
+        }
         if (request.isPresent("baseUrl")) {
             configChangeMap.put(CONFIG_DEV_CONSOLE_URL, request.asString("baseUrl"));
         }
+        if (request.isPresent("alerts")) {
+            // Rejected before broadcasting, a broken rule set would otherwise only show up as a warning
+            AlertRules.parse(request.asString("alerts"));
+            configChangeMap.put(CONFIG_DEV_CONSOLE_ALERTS, request.asString("alerts"));
+        }
         context.newEvent(EVENT_CONFIG_CHANGE, () -> configChangeMap).broadcast(true).async(true).send();
         return toJson(configChangeMap);
     }
 
     protected String getConfig() {
-        return toJson(Map.of(
+        return toJson(getConfigMap());
+    }
+
+    protected Map<String, Object> getConfigMap() {
+        return Map.of(
             "baseUrl", basePath,
             "maxEvents", maxEvents,
-            "maxLogs", maxLogs));
+            "maxLogs", maxLogs,
+            "maxBytes", maxBytes,
+            "logDedupMs", logDeduplicator.windowMs(),
+            "alerts", alertRules.spec());
     }
 
     public String getEventList() {
+        return getEvents().toJson();
+    }
+
+    public TypeList getEvents() {
         final TypeList eventsList = new TypeList();
-        for (Event<?, ?> e : new ArrayList<>(eventHistory)) {
-            LinkedTypeMap eventMap = new LinkedTypeMap()
-                .putR("channel", e.channel().name())
-                .putR("isAck", e.isAcknowledged())
-                .putR("isBroadcast", e.isBroadcast())
-                .putR("eventTimestamp", e.get("createdTs"))
-                .putR("payload", e.payload() != null ? (String.valueOf(e.payload()).length() > 256 ? String.valueOf(e.payload()).substring(0, 256) + "…" : String.valueOf(e.payload())) : "")
-                .putR("response", e.response() != null ? (String.valueOf(e.response()).length() > 256 ? String.valueOf(e.response()).substring(0, 256) + "…" : String.valueOf(e.response())) : "");
-            eventsList.add(eventMap);
+        for (Event<?, ?> e : new ArrayList<>(eventHistory))
+            eventsList.add(toEventMap(e));
+        return eventsList;
+    }
+
+    /**
+     * Events captured, acknowledged or answered after the given version, newest first. Changed events come again with
+     * the same id. firstId is the oldest id still retained so clients can drop rows that got evicted meanwhile, reset
+     * tells them to start over after the version sequence restarted.
+     */
+    public LinkedTypeMap getEventsSince(final long since) {
+        final EventsSince changes = eventsSince(since);
+        final TypeList entries = new TypeList();
+        changes.events().forEach(e -> entries.add(toEventMap(e)));
+        return new LinkedTypeMap()
+            .putR("version", changes.version())
+            .putR("lastId", changes.lastId())
+            .putR("firstId", changes.firstId())
+            .putR("reset", changes.reset())
+            .putR("entries", entries);
+    }
+
+    protected record EventsSince(long version, long lastId, long firstId, boolean reset, List<Event<?, ?>> events) {}
+
+    protected EventsSince eventsSince(final long since) {
+        final long version;
+        final long lastId;
+        // Every version up to this one is stamped on an event that is already in the history
+        synchronized (eventIds) {
+            version = eventVersions.get();
+            lastId = eventIds.get();
+        }
+        final boolean reset = since > version;
+        final List<Event<?, ?>> events = new ArrayList<>();
+        for (Event<?, ?> e : eventHistory) {
+            final long eventVersion = eventVersion(e);
+            if (eventVersion > version)
+                continue;
+            if (reset || eventVersion > since)
+                events.add(e);
+        }
+        final Event<?, ?> oldest = eventHistory.peekLast();
+        return new EventsSince(version, lastId, null == oldest ? lastId + 1 : eventId(oldest), reset, events);
+    }
+
+    /**
+     * Log lines created or collapsed after the given version, newest first. Collapsed lines come again with the same id
+     * and their updated text, firstId works like for events.
+     */
+    public LinkedTypeMap getLogsSince(final long since) {
+        final long version = logDeduplicator.version();
+        final boolean reset = since > version;
+        final TypeList entries = new TypeList();
+        long firstId = version + 1;
+        for (LogDeduplicator.Entry entry : logHistory) {
+            if (0 == entry.id())
+                continue;
+            firstId = Math.min(firstId, entry.id());
+            if (reset || entry.version() > since)
+                entries.add(new LinkedTypeMap().putR("id", entry.id()).putR("text", entry.toString()));
         }
-        return eventsList.toJson();
+        return new LinkedTypeMap()
+            .putR("version", version)
+            .putR("firstId", firstId)
+            .putR("reset", reset)
+            .putR("entries", entries);
+    }
+
+    protected LinkedTypeMap toEventMap(final Event<?, ?> e) {
+        return new LinkedTypeMap()
+            .putR("id", eventId(e))
+            .putR("channel", e.channel().name())
+            .putR("isAck", e.isAcknowledged())
+            .putR("isBroadcast", e.isBroadcast())
+            .putR("eventTimestamp", e.get("createdTs"))
+            .putR("payload", abbreviate(e.payload()))
+            .putR("response", abbreviate(e.response()));
+    }
+
+    protected static long eventId(final Event<?, ?> e) {
+        return e.get(ID_KEY) instanceof Long id ? id : 0;
+    }
+
+    protected static long eventVersion(final Event<?, ?> e) {
+        return e.get(VERSION_KEY) instanceof Long version ? version : 0;
+    }
+
+    protected static String abbreviate(final Object value) {
+        if (null == value)
+            return "";
+        final String str = String.valueOf(value);
+        return str.length() > 256 ? str.substring(0, 256) + "…" : str;
+    }
+
+    public LinkedTypeMap getClusterView() {
+        return federation.clusterView(BASE_URL, getSystemInfo(), getEvents(), getLogLines());
+    }
+
+    // Collapsed repeats render with their count and first/last timestamps
+    public List<String> getLogLines() {
+        final List<String> lines = new ArrayList<>(logHistory.size());
+        for (LogDeduplicator.Entry entry : logHistory)
+            lines.add(entry.toString());
+        return lines;
     }
 
     public LinkedTypeMap getSystemInfo() {
@@ -330,15 +943,161 @@ public class DevConsoleService extends Service {
             .putR("otherThreads", ManagementFactory.getThreadMXBean().getThreadCount() - NanoThread.activeCarrierThreads())
             .putR("totalEvents", totalEvents.get())
             .putR("lastLogsRetained", logHistory.size())
+            .putR("logsCollapsed", logDeduplicator.collapsed())
+            .putR("logRates", logDeduplicator.rates(TOP_LOGGERS))
             .putR("lastEventsRetained", eventHistory.size())
+            .putR("retainedBytes", retainedBytes())
+            .putR("maxRetainedBytes", maxBytes)
+            .putR("compression", Compression.stats())
+            .putR("responseCoalescing", singleFlight.stats())
+            .putR("rateLimited", rateLimiter.rejected())
+            .putR("alerts", alertRules.snapshot())
+            .putR("startupPhases", new TreeMap<>(startupPhases))
             .putR("lastUpdated", dateTimeFormatter.format(Instant.now()));
 
         loadInactiveServices().ifPresent(services -> systemInfo.putR("inactiveServices", services));
+        Optional.ofNullable(svcFactory).ifPresent(factory -> systemInfo.putR("serviceCatalog", factory.stats()));
         return systemInfo;
     }
 
+    protected HttpObject metricsResponse(final HttpObject request) {
+        final boolean openMetrics = MetricsExporter.acceptsOpenMetrics(request.header(ACCEPT));
+        final HttpObject response = responseOk(request, metricsExporter.scrape(openMetrics, this::collectMetrics), ContentType.TEXT_PLAIN);
+        return openMetrics ? response.header(CONTENT_TYPE, MetricsExporter.OPENMETRICS_CONTENT_TYPE) : response;
+    }
+
+    protected void collectMetrics(final MetricsExporter metrics) {
+        final int carrierThreads = NanoThread.activeCarrierThreads();
+        metrics
+            .gauge("nano_heap_usage_ratio", "Used heap relative to max heap", context.nano().heapMemoryUsage())
+            .gauge("nano_used_memory_megabytes", "Memory used by the process in MB", context.nano().usedMemoryMB())
+            .gauge("process_cpu_usage_percent", "Process CPU usage as share of all cores", getCpuUsagePercent())
+            .gauge("jvm_available_processors", "Available processors", Runtime.getRuntime().availableProcessors())
+            .gauge("nano_services_running", "Running services excluding internal ones", getFilteredServices().size())
+            .gauge("nano_schedulers", "Active Nano schedulers", context.nano().schedulers().size())
+            .gauge("nano_scheduler_pending_tasks", "Tasks queued on all Nano schedulers at the last sample", schedulerSampler.totalPending())
+            .gauge("nano_scheduler_overdue_tasks", "Queued tasks past their planned start at the last sample", schedulerSampler.totalOverdue())
+            .gauge("nano_listeners", "Registered event listeners", getListenerCount(context.nano().listeners().values()))
+            .family("nano_threads", "Thread counts by kind", "gauge")
+            .sample("nano_threads", Map.of("kind", "nano"), NanoThread.activeNanoThreads())
+            .sample("nano_threads", Map.of("kind", "carrier"), carrierThreads)
+            .sample("nano_threads", Map.of("kind", "other"), ManagementFactory.getThreadMXBean().getThreadCount() - carrierThreads)
+            .counter("nano_events", "Events seen on all channels", totalEvents.get())
+            .family("nano_channel_events", "Events seen per channel", "counter");
+        new TreeMap<>(channelEvents).forEach((channel, count) -> metrics.sample("nano_channel_events_total", Map.of("channel", channel), count.sum()));
+        metrics
+            .gauge("devconsole_retained_events", "Events retained in memory", eventHistory.size())
+            .gauge("devconsole_retained_logs", "Log lines retained in memory", logHistory.size())
+            .counter("devconsole_logs_collapsed", "Repeated log records folded into a retained line", logDeduplicator.collapsed())
+            .gauge("devconsole_retained_bytes", "Estimated bytes retained by events and logs", retainedBytes())
+            .gauge("devconsole_max_retained_bytes", "Retention budget in bytes", maxBytes)
+            .gauge("devconsole_alerts_firing", "Alert rules currently firing", alertRules.firingCount())
+            .counter("devconsole_compressed_responses", "Responses compressed on the fly", Compression.responses())
+            .counter("devconsole_compression_input_bytes", "Bytes before on the fly compression", Compression.bytesIn())
+            .counter("devconsole_compression_output_bytes", "Bytes after on the fly compression", Compression.bytesOut())
+            .counter("devconsole_compression_seconds", "Time spent compressing responses", Compression.nanos() / 1e9);
+    }
+
+    public LinkedTypeMap getTopology() {
+        return new LinkedTypeMap()
+            .putR("version", topology.version())
+            .putR("profiling", topology.isProfiling())
+            .putR("channels", topology.topology(context.nano().listeners(), context.services()));
+    }
+
+    public LinkedTypeMap getTraces() {
+        return new LinkedTypeMap()
+            .putR("enabled", null != topology.tracer())
+            .putR("traces", tracer.traces(MAX_TRACES_RESPONSE));
+    }
+
+    // Heartbeats, logs and the console's own requests would only bury the traces worth looking at
+    protected boolean isTraceable(final Event<?, ?> event) {
+        if (event.channel().equals(EVENT_APP_HEARTBEAT) || event.channel().equals(EVENT_LOGGING) || event.channel().equals(EVENT_DEV_CONSOLE_LOADGEN))
+            return false;
+        return !(event.channel().equals(EVENT_HTTP_REQUEST) && event.payload() instanceof HttpObject request && !(match(request) instanceof NoMatch));
+    }
+
+    // Transitions go out as events, so they land in the event list and other services can react on them
+    protected void evaluateAlerts() {
+        if (alertRules.isEmpty())
+            return;
+        for (LinkedTypeMap transition : alertRules.evaluateIfDue(this::alertMetric)) {
+            if (AlertRules.FIRING.equals(transition.asString("state")))
+                context.warn(() -> "[{}] alert firing [{}] value [{}]", name(), transition.asString("rule"), transition.get("value"));
+            else
+                context.info(() -> "[{}] alert resolved [{}] value [{}]", name(), transition.asString("rule"), transition.get("value"));
+            context.newEvent(EVENT_DEV_CONSOLE_ALERT, () -> transition).broadcast(true).async(true).send();
+        }
+    }
+
+    // Metric keys as produced by AlertRules.parse, counters for rates are turned into rates by the rule
+    protected double alertMetric(final String source) {
+        final int split = source.indexOf(':');
+        final String channel = split < 0 ? null : source.substring(split + 1);
+        return switch (split < 0 ? source : source.substring(0, split)) {
+            case "cpuUsage" -> alertCpu.samplePercent();
+            case "heapUsage" -> context.nano().heapMemoryUsage() * 100;
+            case "events" -> null == channel ? totalEvents.get() : Optional.ofNullable(channelEvents.get(channel)).map(LongAdder::sum).orElse(0L);
+            case "p99" -> listenerP99Millis(channel);
+            default -> Double.NaN;
+        };
+    }
+
+    // Slowest listener p99 on the channel since the last evaluation, needs listener profiling - NaN keeps the rule silent otherwise
+    protected double listenerP99Millis(final String channel) {
+        if (!topology.isProfiling())
+            return Double.NaN;
+        double p99 = 0;
+        for (Map.Entry<?, ? extends Set<?>> entry : context.nano().listeners().entrySet()) {
+            if (entry.getKey() instanceof Channel<?, ?> ch && ch.name().equals(channel)) {
+                for (Object listener : entry.getValue().toArray()) {
+                    if (listener instanceof ListenerTopology.ProfiledListener profiled) {
+                        final long[] counts = profiled.latency().bucketCounts();
+                        final long[] previous = latencyWindows.put(profiled, counts);
+                        final double windowP99 = LatencyHistogram.percentileMicros(null == previous ? new long[counts.length] : previous, counts, 99);
+                        if (!Double.isNaN(windowP99))
+                            p99 = Math.max(p99, windowP99 / 1000.0);
+                    }
+                }
+            }
+        }
+        return p99;
+    }
+
+    // A dump replaced during the download answers 410, the client has to start over with the new id
+    protected void respondHeapDumpChunk(final Event<HttpObject, HttpObject> event, final String id, final long chunk) {
+        try {
+            if (null == id || id.isBlank())
+                throw new IllegalArgumentException("Missing heap dump id, chunks are requested with ?id=<id>&chunk=<n>");
+            final byte[] bytes = heapDumper.chunk(id.trim(), (int) Math.min(chunk, Integer.MAX_VALUE));
+            event.respond(responseDownload(event.payload(), bytes, "application/gzip", "heap-" + context.nano().pid() + ".hprof.gz." + chunk));
+        } catch (NoSuchFileException e) {
+            event.respond(responseGone(event.payload(), e.getMessage()));
+        } catch (IOException | IllegalStateException | IllegalArgumentException e) {
+            event.error(e);
+        }
+    }
+
+    // The histogram runs a full GC, so it is cached briefly and concurrent requests share one run
+    public String getHeapHistogram(final Long limit) {
+        final int top = null == limit ? HeapHistogram.DEFAULT_LIMIT : Math.clamp(limit, 1, HeapHistogram.MAX_LIMIT);
+        // One full GC per TTL whatever limits clients ask for - the widest snapshot is cached and cut per request
+        final LinkedTypeMap snapshot = singleFlight.get("heap:histogram", HEAP_HISTOGRAM_TTL_MS, () -> HeapHistogram.snapshot(HeapHistogram.MAX_LIMIT));
+        return toJson(HeapHistogram.top(snapshot, top));
+    }
+
+    // Samples on request too, throttled by the sampler, so the view is fresh without waiting for a heartbeat
+    public TypeList getSchedulers() {
+        schedulerSampler.sampleIfDue(context.nano().schedulers());
+        return schedulerSampler.snapshot();
+    }
+
     protected static long getListenerCount(final Collection<Set<Consumer<? super Event<?, ?>>>> listenerList) {
-        return new ArrayList<>(listenerList).stream().mapToLong(Collection::size).sum();
+        long count = 0;
+        for (Set<?> listeners : listenerList)
+            count += listeners.size();
+        return count;
     }
 
     protected List<Service> getFilteredServices() {
@@ -346,7 +1105,7 @@ public class DevConsoleService extends Service {
     }
 
     protected Optional<Set<String>> loadInactiveServices() {
-        if (servicesIndex.isEmpty()) {
+        if (!isServiceIndexReady() || servicesIndex.isEmpty()) {
             return Optional.empty();
         }
 
@@ -362,14 +1121,48 @@ public class DevConsoleService extends Service {
     public void configure(TypeMapI<?> configs, TypeMapI<?> merged) {
         this.maxEvents = merged.asIntOpt(CONFIG_DEV_CONSOLE_MAX_EVENTS).orElse(DEFAULT_MAX_EVENTS);
         this.maxLogs = merged.asIntOpt(CONFIG_DEV_CONSOLE_MAX_LOGS).orElse(DEFAULT_MAX_LOGS);
+        this.maxBytes = merged.asLongOpt(CONFIG_DEV_CONSOLE_MAX_BYTES).orElse(DEFAULT_MAX_BYTES);
         this.basePath = merged.asStringOpt(CONFIG_DEV_CONSOLE_URL).orElse(DEFAULT_UI_URL);
         this.svcFileName = merged.asStringOpt(CONFIG_DEV_CONSOLE_SERVICES_FILE).orElse(DEFAULT_SVC_FILE);
+        this.responseTtlMs = merged.asLongOpt(CONFIG_DEV_CONSOLE_RESPONSE_TTL_MS).orElse(DEFAULT_RESPONSE_TTL_MS);
+        final double newRateLimit = merged.asDoubleOpt(CONFIG_DEV_CONSOLE_RATE_LIMIT).orElse(DEFAULT_RATE_LIMIT);
+        if (newRateLimit != rateLimit) {
+            rateLimiter = new RateLimiter(newRateLimit, newRateLimit * 2);
+            rateLimit = newRateLimit;
+        }
+        this.trustForwarded = merged.asBooleanOpt(CONFIG_DEV_CONSOLE_TRUST_FORWARDED).orElse(false);
+        singleFlight.invalidate();
+        this.profileListeners = merged.asBooleanOpt(CONFIG_DEV_CONSOLE_PROFILE_LISTENERS).orElse(false);
+        if (profileListeners != topology.isProfiling() && announced.get())
+            topology.profiling(profileListeners, context.nano().listeners());
+        this.tracing = merged.asBooleanOpt(CONFIG_DEV_CONSOLE_TRACING).orElse(false);
+        if (tracing != (null != topology.tracer()) && announced.get())
+            topology.tracing(tracing ? tracer : null, context.nano().listeners());
+        final List<String> newPeers = PeerFederation.parsePeers(merged.asStringOpt(CONFIG_DEV_CONSOLE_PEERS).orElse(""),
+            peer -> context.warn(() -> "[{}] ignoring peer [{}], expected an http(s) URL with a host", name(), peer));
+        final long newTimeoutMs = merged.asLongOpt(CONFIG_DEV_CONSOLE_PEER_TIMEOUT_MS).orElse(DEFAULT_PEER_TIMEOUT_MS);
+        final long newTtlMs = merged.asLongOpt(CONFIG_DEV_CONSOLE_PEER_TTL_MS).orElse(DEFAULT_PEER_TTL_MS);
+        if (!newPeers.equals(peers) || newTimeoutMs != peerTimeoutMs || newTtlMs != peerTtlMs) {
+            final PeerFederation previous = federation;
+            federation = newPeers.isEmpty() ? PeerFederation.NONE : new PeerFederation(newPeers, newTimeoutMs, newTtlMs);
+            previous.close();
+        }
+        this.peers = newPeers;
+        this.peerTimeoutMs = newTimeoutMs;
+        this.peerTtlMs = newTtlMs;
+        logDeduplicator.windowMs(merged.asLongOpt(CONFIG_DEV_CONSOLE_LOG_DEDUP_MS).orElse(DEFAULT_LOG_DEDUP_MS));
+        try {
+            alertRules.rules(merged.asStringOpt(CONFIG_DEV_CONSOLE_ALERTS).orElse(""));
+        } catch (IllegalArgumentException e) {
+            context.warn(() -> "[{}] keeping previous alert rules: {}", name(), e.getMessage());
+        }
         if (maxEvents < eventHistory.size()) {
             removeLastNElements(eventHistory, eventHistory.size() - maxEvents);
         }
         if (maxLogs < logHistory.size()) {
             removeLastNElements(logHistory, logHistory.size() - maxLogs);
         }
+        enforceByteBudget();
     }
 
     @Override
@@ -379,11 +1172,30 @@ public class DevConsoleService extends Service {
 
     @Override
     public void stop() {
+        if (topology.isProfiling())
+            topology.profiling(false, context.nano().listeners());
+        if (null != topology.tracer())
+            topology.tracing(null, context.nano().listeners());
         context.unsubscribeEvent(EVENT_APP_HEARTBEAT, channelListener);
         eventListenerMap.forEach((ch, listener) -> context.unsubscribeEvent(ch, (Consumer) listener));
         eventListenerMap.clear();
         eventHistory.clear();
+        awaitingResponse.clear();
         logHistory.clear();
+        logDeduplicator.clear();
+        loadGenerator.cancel();
+        federation.close();
+        federation = PeerFederation.NONE;
+        peers = List.of();
+        tracer.clear();
+        alertRules.clear();
+        try {
+            heapDumper.delete();
+        } catch (IllegalStateException e) {
+            context.warn(() -> "[{}] heap dump still running, its temp file is removed on exit", name());
+        }
+        eventBytes.set(0);
+        logBytes.set(0);
         context.info(() -> "[{}] stopped", name());
     }
 
@@ -392,10 +1204,14 @@ public class DevConsoleService extends Service {
 
     public void removeLastNElements(final Deque<?> deque, final int N) {
         lock.lock();
-        for (int i = 0; i < N; i++) {
-            deque.removeLast();
+        try {
+            for (int i = 0; i < N; i++) {
+                if (null == evictLast(deque))
+                    break;
+            }
+        } finally {
+            lock.unlock();
         }
-        lock.unlock();
     }
 
     private Set<String> fetchCorrectPropFile(final List<URL> urls) {
@@ -0,0 +1,222 @@
+package org.nanonative.devconsole.util;
+
+import berlin.yuna.typemap.model.LinkedTypeMap;
+import berlin.yuna.typemap.model.TypeList;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Threshold rules on sampled metrics, e.g. {@code cpuUsage > 85% for 30s; p99:EVENT_HTTP_REQUEST > 200ms}. Each
+ * evaluation reads every referenced metric once, no matter how many rules use it, and keeps a fixed amount of state per
+ * rule: whether it fires, since when its condition holds and the last counter value for rate metrics. Only transitions
+ * between ok and firing are reported.
+ */
+public class AlertRules {
+
+    public static final int MAX_RULES = 512;
+    public static final int MAX_TRANSITIONS = 50;
+    public static final long MIN_INTERVAL_NS = TimeUnit.SECONDS.toNanos(1);
+    public static final String FIRING = "firing";
+    public static final String RESOLVED = "resolved";
+
+    // metric[:channel] op threshold[%|ms] [for duration]
+    private static final Pattern RULE = Pattern.compile("^\\s*(cpuUsage|heapUsage|eventsPerSecond|p99)(?::([A-Za-z0-9_.-]+))?\\s*(>=|<=|>|<)\\s*(-?\\d+(?:\\.\\d+)?)\\s*(%|ms)?(?:\\s+for\\s+(\\d+)\\s*(ms|s|m))?\\s*$");
+
+    private volatile List<Rule> rules = List.of();
+    private volatile String spec = "";
+    private final Deque<LinkedTypeMap> transitions = new ArrayDeque<>();
+    private long lastEvaluationNs;
+
+    public static final class Rule {
+        private final String expression;
+        private final String source;
+        private final boolean rate;
+        private final String op;
+        private final double threshold;
+        private final long forNs;
+        private boolean firing;
+        private long holdingSinceNs = -1;
+        private long changedMs;
+        private double value = Double.NaN;
+        private double lastCount = Double.NaN;
+        private long lastNs;
+
+        private Rule(final String expression, final String source, final boolean rate, final String op, final double threshold, final long forNs) {
+            this.expression = expression;
+            this.source = source;
+            this.rate = rate;
+            this.op = op;
+            this.threshold = threshold;
+            this.forNs = forNs;
+        }
+
+        public String expression() {
+            return expression;
+        }
+
+        // Metric key the rule reads, rate rules read a counter and derive the rate themselves
+        public String source() {
+            return source;
+        }
+
+        private boolean breached(final double v) {
+            return switch (op) {
+                case ">" -> v > threshold;
+                case ">=" -> v >= threshold;
+                case "<" -> v < threshold;
+                default -> v <= threshold;
+            };
+        }
+    }
+
+    /**
+     * Parses rules separated by ';' or new lines. Metrics: cpuUsage and heapUsage in percent, eventsPerSecond over all
+     * channels or eventsPerSecond:CHANNEL, p99:CHANNEL listener latency in milliseconds.
+     */
+    public static List<Rule> parse(final String spec) {
+        final List<Rule> result = new ArrayList<>();
+        if (null == spec)
+            return result;
+        for (String part : spec.split("[;\\n]")) {
+            if (part.isBlank())
+                continue;
+            final Matcher m = RULE.matcher(part);
+            if (!m.matches())
+                throw new IllegalArgumentException("Invalid alert rule [" + part.trim() + "], expected e.g. [cpuUsage > 85% for 30s]");
+            final String metric = m.group(1);
+            final String channel = m.group(2);
+            if ("p99".equals(metric) && null == channel)
+                throw new IllegalArgumentException("Alert rule [" + part.trim() + "] needs a channel, e.g. [p99:EVENT_HTTP_REQUEST > 200ms]");
+            if (null != channel && !"p99".equals(metric) && !"eventsPerSecond".equals(metric))
+                throw new IllegalArgumentException("Alert rule [" + part.trim() + "] does not take a channel");
+            final boolean rate = "eventsPerSecond".equals(metric);
+            final String source = rate ? (null == channel ? "events" : "events:" + channel) : (null == channel ? metric : metric + ":" + channel);
+            final long forNs = null == m.group(6) ? 0 : switch (m.group(7)) {
+                case "ms" -> TimeUnit.MILLISECONDS.toNanos(Long.parseLong(m.group(6)));
+                case "s" -> TimeUnit.SECONDS.toNanos(Long.parseLong(m.group(6)));
+                default -> TimeUnit.MINUTES.toNanos(Long.parseLong(m.group(6)));
+            };
+            result.add(new Rule(part.trim().replaceAll("\\s+", " "), source, rate, m.group(3), Double.parseDouble(m.group(4)), forNs));
+        }
+        if (result.size() > MAX_RULES)
+            throw new IllegalArgumentException("Too many alert rules [" + result.size() + "], max is [" + MAX_RULES + "]");
+        return result;
+    }
+
+    // Replaces the rules, rules with an unchanged expression keep their state so a config change doesn't re-fire them
+    public synchronized void rules(final String spec) {
+        final List<Rule> parsed = parse(spec);
+        final Map<String, Rule> previous = new HashMap<>();
+        for (Rule rule : rules)
+            previous.put(rule.expression, rule);
+        final List<Rule> next = new ArrayList<>(parsed.size());
+        for (Rule rule : parsed)
+            next.add(previous.getOrDefault(rule.expression, rule));
+        this.rules = List.copyOf(next);
+        this.spec = null == spec ? "" : spec.trim();
+    }
+
+    public String spec() {
+        return spec;
+    }
+
+    public boolean isEmpty() {
+        return rules.isEmpty();
+    }
+
+    // Throttled so a fast heartbeat doesn't read metrics more than once per second
+    public synchronized List<LinkedTypeMap> evaluateIfDue(final ToDoubleFunction<String> metrics) {
+        final long now = System.nanoTime();
+        if (rules.isEmpty() || (lastEvaluationNs != 0 && now - lastEvaluationNs < MIN_INTERVAL_NS))
+            return List.of();
+        return evaluate(metrics, now);
+    }
+
+    // Returns the transitions of this evaluation, metrics are read once per key
+    public synchronized List<LinkedTypeMap> evaluate(final ToDoubleFunction<String> metrics, final long now) {
+        lastEvaluationNs = now;
+        final Map<String, Double> sample = new HashMap<>();
+        final List<LinkedTypeMap> changed = new ArrayList<>();
+        for (Rule rule : rules) {
+            final double raw = sample.computeIfAbsent(rule.source, metrics::applyAsDouble);
+            final double value = rule.rate ? rate(rule, raw, now) : raw;
+            rule.value = value;
+            if (Double.isNaN(value))
+                continue;
+            if (!rule.breached(value)) {
+                rule.holdingSinceNs = -1;
+                if (rule.firing)
+                    changed.add(transition(rule, RESOLVED));
+                continue;
+            }
+            if (rule.holdingSinceNs < 0)
+                rule.holdingSinceNs = now;
+            if (!rule.firing && now - rule.holdingSinceNs >= rule.forNs)
+                changed.add(transition(rule, FIRING));
+        }
+        return changed;
+    }
+
+    public synchronized LinkedTypeMap snapshot() {
+        final TypeList firing = new TypeList();
+        for (Rule rule : rules) {
+            if (rule.firing)
+                firing.add(new LinkedTypeMap().putR("rule", rule.expression).putR("value", round(rule.value)).putR("sinceMs", rule.changedMs));
+        }
+        final TypeList recent = new TypeList();
+        recent.addAll(transitions);
+        return new LinkedTypeMap()
+            .putR("rules", rules.size())
+            .putR("firing", firing)
+            .putR("transitions", recent);
+    }
+
+    public synchronized long firingCount() {
+        return rules.stream().filter(rule -> rule.firing).count();
+    }
+
+    public synchronized void clear() {
+        transitions.clear();
+        for (Rule rule : rules) {
+            rule.firing = false;
+            rule.holdingSinceNs = -1;
+            rule.lastCount = Double.NaN;
+        }
+    }
+
+    private static double rate(final Rule rule, final double count, final long now) {
+        final double previous = rule.lastCount;
+        final long elapsed = now - rule.lastNs;
+        rule.lastCount = count;
+        rule.lastNs = now;
+        return Double.isNaN(previous) || elapsed <= 0 ? Double.NaN : Math.max(0, count - previous) * 1e9 / elapsed;
+    }
+
+    private LinkedTypeMap transition(final Rule rule, final String state) {
+        rule.firing = FIRING.equals(state);
+        rule.changedMs = System.currentTimeMillis();
+        final LinkedTypeMap transition = new LinkedTypeMap()
+            .putR("rule", rule.expression)
+            .putR("state", state)
+            .putR("value", round(rule.value))
+            .putR("threshold", rule.threshold)
+            .putR("timestampMs", rule.changedMs);
+        transitions.addFirst(transition);
+        if (transitions.size() > MAX_TRANSITIONS)
+            transitions.removeLast();
+        return transition;
+    }
+
+    private static double round(final double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+}
@@ -0,0 +1,179 @@
+package org.nanonative.devconsole.util;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+
+// Hand-written, allocation-light encoder base for compact binary responses - one growable buffer per response
+public abstract class BinaryEncoder {
+
+    public static final String APPLICATION_CBOR = "application/cbor";
+    public static final String APPLICATION_MSGPACK = "application/msgpack";
+    public static final String APPLICATION_X_MSGPACK = "application/x-msgpack";
+
+    protected byte[] buffer;
+    protected int length;
+
+    protected BinaryEncoder(final int initialCapacity) {
+        this.buffer = new byte[Math.max(64, initialCapacity)];
+    }
+
+    // Returns an encoder for the binary type with the highest q-value in the Accept header, null keeps the JSON default.
+    // Types with q=0 are refused, on equal weight the first one listed wins
+    public static BinaryEncoder forAccept(final String accept) {
+        if (null == accept || accept.isBlank())
+            return null;
+        String best = null;
+        double bestQ = 0;
+        for (String token : accept.split(",")) {
+            final String[] parts = token.split(";");
+            final String type = parts[0].trim().toLowerCase();
+            if (!isNegotiable(type))
+                continue;
+            final double q = quality(parts);
+            if (q > bestQ) {
+                best = type;
+                bestQ = q;
+            }
+        }
+        return switch (null == best ? "" : best) {
+            case APPLICATION_CBOR -> new CborEncoder(4096);
+            case APPLICATION_MSGPACK, APPLICATION_X_MSGPACK -> new MsgPackEncoder(4096);
+            default -> null;
+        };
+    }
+
+    private static boolean isNegotiable(final String type) {
+        return switch (type) {
+            case APPLICATION_CBOR, APPLICATION_MSGPACK, APPLICATION_X_MSGPACK, "application/json", "application/*", "*/*" -> true;
+            default -> false;
+        };
+    }
+
+    // Missing q means 1, a malformed one counts as refused
+    private static double quality(final String[] parts) {
+        double q = 1.0;
+        for (int i = 1; i < parts.length; i++) {
+            final String param = parts[i].trim();
+            if (param.startsWith("q=")) {
+                try {
+                    q = Double.parseDouble(param.substring(2));
+                } catch (NumberFormatException ignored) {
+                    q = 0;
+                }
+            }
+        }
+        return q;
+    }
+
+    public abstract String mediaType();
+
+    public abstract BinaryEncoder mapHeader(int size);
+
+    public abstract BinaryEncoder arrayHeader(int size);
+
+    public abstract BinaryEncoder string(String value);
+
+    public abstract BinaryEncoder bytes(byte[] value);
+
+    public abstract BinaryEncoder longValue(long value);
+
+    public abstract BinaryEncoder doubleValue(double value);
+
+    public abstract BinaryEncoder bool(boolean value);
+
+    public abstract BinaryEncoder nil();
+
+    public BinaryEncoder write(final Object value) {
+        switch (value) {
+            case null -> nil();
+            case Boolean b -> bool(b);
+            case Integer i -> longValue(i);
+            case Long l -> longValue(l);
+            case Short s -> longValue(s);
+            case Byte b -> longValue(b);
+            case BigInteger bi when bi.bitLength() < 64 -> longValue(bi.longValue());
+            case BigDecimal bd -> doubleValue(bd.doubleValue());
+            case Number n -> doubleValue(n.doubleValue());
+            case CharSequence cs -> string(cs.toString());
+            // Timestamps go out as epoch millis instead of formatted strings
+            case Instant instant -> longValue(instant.toEpochMilli());
+            case Enum<?> e -> string(e.name());
+            case byte[] b -> bytes(b);
+            case Optional<?> opt -> write(opt.orElse(null));
+            case Map<?, ?> map -> writeMap(map);
+            case Collection<?> col -> writeCollection(col);
+            case Object[] arr -> writeCollection(Arrays.asList(arr));
+            default -> string(String.valueOf(value));
+        }
+        return this;
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, length);
+    }
+
+    public int size() {
+        return length;
+    }
+
+    protected void writeMap(final Map<?, ?> map) {
+        // Snapshot first - the header carries the size, concurrent maps may change while iterating
+        final Object[] entries = map.entrySet().toArray();
+        mapHeader(entries.length);
+        for (Object obj : entries) {
+            final Map.Entry<?, ?> entry = (Map.Entry<?, ?>) obj;
+            string(String.valueOf(entry.getKey()));
+            write(entry.getValue());
+        }
+    }
+
+    protected void writeCollection(final Collection<?> col) {
+        final Object[] items = col.toArray();
+        arrayHeader(items.length);
+        for (Object item : items)
+            write(item);
+    }
+
+    protected void ensure(final int extra) {
+        if (length + extra > buffer.length)
+            buffer = Arrays.copyOf(buffer, Math.max(length + extra, buffer.length * 2));
+    }
+
+    protected void put(final int b) {
+        ensure(1);
+        buffer[length++] = (byte) b;
+    }
+
+    protected void putBigEndian(final long value, final int bytes) {
+        ensure(bytes);
+        for (int i = bytes - 1; i >= 0; i--)
+            buffer[length++] = (byte) (value >>> (8 * i));
+    }
+
+    protected void putRaw(final byte[] value) {
+        ensure(value.length);
+        System.arraycopy(value, 0, buffer, length, value.length);
+        length += value.length;
+    }
+
+    // ASCII strings are copied char by char, anything else goes through the UTF-8 encoder
+    protected byte[] asciiOrNull(final String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) >= 0x80)
+                return value.getBytes(StandardCharsets.UTF_8);
+        }
+        return null;
+    }
+
+    protected void putAscii(final String value) {
+        ensure(value.length());
+        for (int i = 0; i < value.length(); i++)
+            buffer[length++] = (byte) value.charAt(i);
+    }
+}
@@ -0,0 +1,95 @@
+package org.nanonative.devconsole.util;
+
+// RFC 8949 definite-length encoding, shortest integer form, doubles as float64
+public class CborEncoder extends BinaryEncoder {
+
+    public CborEncoder(final int initialCapacity) {
+        super(initialCapacity);
+    }
+
+    @Override
+    public String mediaType() {
+        return APPLICATION_CBOR;
+    }
+
+    @Override
+    public BinaryEncoder mapHeader(final int size) {
+        header(5, size);
+        return this;
+    }
+
+    @Override
+    public BinaryEncoder arrayHeader(final int size) {
+        header(4, size);
+        return this;
+    }
+
+    @Override
+    public BinaryEncoder string(final String value) {
+        if (null == value)
+            return nil();
+        final byte[] utf8 = asciiOrNull(value);
+        if (null == utf8) {
+            header(3, value.length());
+            putAscii(value);
+        } else {
+            header(3, utf8.length);
+            putRaw(utf8);
+        }
+        return this;
+    }
+
+    @Override
+    public BinaryEncoder bytes(final byte[] value) {
+        header(2, value.length);
+        putRaw(value);
+        return this;
+    }
+
+    @Override
+    public BinaryEncoder longValue(final long value) {
+        if (value >= 0)
+            header(0, value);
+        else
+            header(1, -1 - value);
+        return this;
+    }
+
+    @Override
+    public BinaryEncoder doubleValue(final double value) {
+        put(0xfb);
+        putBigEndian(Double.doubleToLongBits(value), 8);
+        return this;
+    }
+
+    @Override
+    public BinaryEncoder bool(final boolean value) {
+        put(value ? 0xf5 : 0xf4);
+        return this;
+    }
+
+    @Override
+    public BinaryEncoder nil() {
+        put(0xf6);
+        return this;
+    }
+
+    private void header(final int major, final long value) {
+        final int type = major << 5;
+        if (value < 24) {
+            put(type | (int) value);
+        } else if (value <= 0xffL) {
+            put(type | 24);
+            put((int) value);
+        } else if (value <= 0xffffL) {
+            put(type | 25);
+            putBigEndian(value, 2);
+        } else if (value <= 0xffffffffL) {
+            put(type | 26);
+            putBigEndian(value, 4);
+        } else {
+            put(type | 27);
+            putBigEndian(value, 8);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package org.nanonative.devconsole.util;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+public class Compression {
+
+    public static final String GZIP = "gzip";
+    public static final String DEFLATE = "deflate";
+    public static final int MIN_BYTES = 1024;
+    public static final int POOL_SIZE = 16;
+    // Buffers above this size are dropped instead of pooled so one huge response doesn't pin memory
+    public static final int MAX_POOLED_BUFFER = 256 * 1024;
+
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+    private static final BlockingQueue<Compressor> GZIP_POOL = new ArrayBlockingQueue<>(POOL_SIZE);
+    private static final BlockingQueue<Compressor> DEFLATE_POOL = new ArrayBlockingQueue<>(POOL_SIZE);
+
+    private static final LongAdder RESPONSES = new LongAdder();
+    private static final LongAdder BYTES_IN = new LongAdder();
+    private static final LongAdder BYTES_OUT = new LongAdder();
+    private static final LongAdder NANOS = new LongAdder();
+
+    private Compression() {}
+
+    // Picks gzip or deflate from an Accept-Encoding header by q-value, gzip wins ties, null means identity
+    public static String negotiate(final String acceptEncoding) {
+        if (null == acceptEncoding || acceptEncoding.isBlank())
+            return null;
+        double gzipQ = -1, deflateQ = -1, wildcardQ = -1;
+        for (String token : acceptEncoding.split(",")) {
+            final String[] parts = token.trim().split(";");
+            final String coding = parts[0].trim().toLowerCase();
+            double q = 1.0;
+            for (int i = 1; i < parts.length; i++) {
+                final String param = parts[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        q = Double.parseDouble(param.substring(2));
+                    } catch (NumberFormatException ignored) {
+                        q = 0;
+                    }
+                }
+            }
+            switch (coding) {
+                case GZIP, "x-gzip" -> gzipQ = q;
+                case DEFLATE -> deflateQ = q;
+                case "*" -> wildcardQ = q;
+                default -> {}
+            }
+        }
+        if (gzipQ < 0)
+            gzipQ = wildcardQ;
+        if (deflateQ < 0)
+            deflateQ = wildcardQ;
+        if (gzipQ <= 0 && deflateQ <= 0)
+            return null;
+        return gzipQ >= deflateQ ? GZIP : DEFLATE;
+    }
+
+    public static byte[] compress(final byte[] input, final String encoding) {
+        final boolean gzip = GZIP.equals(encoding);
+        final BlockingQueue<Compressor> pool = gzip ? GZIP_POOL : DEFLATE_POOL;
+        final Compressor compressor = pool.poll();
+        final Compressor active = null == compressor ? new Compressor(gzip) : compressor;
+        final long startNs = System.nanoTime();
+        try {
+            final byte[] result = active.compress(input);
+            RESPONSES.increment();
+            BYTES_IN.add(input.length);
+            BYTES_OUT.add(result.length);
+            return result;
+        } finally {
+            NANOS.add(System.nanoTime() - startNs);
+            if (active.buffer.length > MAX_POOLED_BUFFER || !pool.offer(active))
+                active.deflater.end();
+        }
+    }
+
+    public static long responses() {
+        return RESPONSES.sum();
+    }
+
+    public static long bytesIn() {
+        return BYTES_IN.sum();
+    }
+
+    public static long bytesOut() {
+        return BYTES_OUT.sum();
+    }
+
+    public static long nanos() {
+        return NANOS.sum();
+    }
+
+    public static Map<String, Object> stats() {
+        final long in = BYTES_IN.sum();
+        final long responses = RESPONSES.sum();
+        final Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("responses", responses);
+        stats.put("bytesIn", in);
+        stats.put("bytesOut", BYTES_OUT.sum());
+        stats.put("ratio", in == 0 ? 0.0 : Math.round((double) BYTES_OUT.sum() / in * 1000.0) / 1000.0);
+        stats.put("avgMicros", responses == 0 ? 0.0 : Math.round(NANOS.sum() / 10.0 / responses) / 100.0);
+        return stats;
+    }
+
+    private static final class Compressor {
+        private final boolean gzip;
+        private final Deflater deflater;
+        private final CRC32 crc = new CRC32();
+        private byte[] buffer = new byte[8192];
+
+        private Compressor(final boolean gzip) {
+            this.gzip = gzip;
+            // gzip frames raw deflate data itself, deflate content-coding is the zlib format
+            this.deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, gzip);
+        }
+
+        private byte[] compress(final byte[] input) {
+            deflater.reset();
+            deflater.setInput(input);
+            deflater.finish();
+            int len = 0;
+            if (gzip) {
+                ensure(GZIP_HEADER.length);
+                System.arraycopy(GZIP_HEADER, 0, buffer, 0, GZIP_HEADER.length);
+                len = GZIP_HEADER.length;
+            }
+            while (!deflater.finished()) {
+                if (len == buffer.length)
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                len += deflater.deflate(buffer, len, buffer.length - len);
+            }
+            if (gzip) {
+                crc.reset();
+                crc.update(input, 0, input.length);
+                ensure(len + 8);
+                len = writeIntLe(buffer, len, (int) crc.getValue());
+                len = writeIntLe(buffer, len, input.length);
+            }
+            return Arrays.copyOf(buffer, len);
+        }
+
+        private void ensure(final int size) {
+            if (buffer.length < size)
+                buffer = Arrays.copyOf(buffer, Math.max(size, buffer.length * 2));
+        }
+
+        private static int writeIntLe(final byte[] buf, final int offset, final int value) {
+            buf[offset] = (byte) value;
+            buf[offset + 1] = (byte) (value >>> 8);
+            buf[offset + 2] = (byte) (value >>> 16);
+            buf[offset + 3] = (byte) (value >>> 24);
+            return offset + 4;
+        }
+    }
+}
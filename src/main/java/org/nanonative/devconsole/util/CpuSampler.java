@@ -0,0 +1,29 @@
+package org.nanonative.devconsole.util;
+
+import java.time.Duration;
+
+// Process CPU usage as share of all cores between two samples - each reader keeps its own window
+public class CpuSampler {
+
+    private long lastWallNs = -1;
+    private long lastProcNs;
+
+    // NaN for the first sample, without a previous one there is no window to measure
+    public synchronized double samplePercent() {
+        final Duration cpu = ProcessHandle.current().info().totalCpuDuration().orElse(null);
+        if (null == cpu)
+            return Double.NaN;
+        final long nowWall = System.nanoTime();
+        final long nowProc = cpu.toNanos();
+        final long prevWall = lastWallNs;
+        final long prevProc = lastProcNs;
+        lastWallNs = nowWall;
+        lastProcNs = nowProc;
+
+        final long dWall = nowWall - prevWall;
+        final long dProc = nowProc - prevProc;
+        if (prevWall < 0 || dWall <= 0 || dProc < 0)
+            return Double.NaN;
+        return (double) dProc / dWall / Runtime.getRuntime().availableProcessors() * 100.0;
+    }
+}
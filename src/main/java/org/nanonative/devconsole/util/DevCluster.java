@@ -0,0 +1,3 @@
+package org.nanonative.devconsole.util;
+
+public record DevCluster() implements RoutesMatch {}
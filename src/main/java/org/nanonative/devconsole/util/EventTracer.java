@@ -0,0 +1,263 @@
+package org.nanonative.devconsole.util;
+
+import berlin.yuna.typemap.model.LinkedTypeMap;
+import berlin.yuna.typemap.model.TypeList;
+import org.nanonative.nano.helper.event.model.Event;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * Links events sent while a listener handles another event into trace trees. The span being handled is kept in a
+ * thread local for the duration of the listener call, so events sent synchronously pick it up as their parent. Work
+ * handed to other threads carries it along with {@link #propagate(Runnable)}. Spans are looked up by event identity in
+ * a bounded side map with weak keys, events only carry their {@link #TRACE_ID} as correlation id. Only the newest
+ * {@link #MAX_TRACES} traces with up to {@link #MAX_SPANS} spans each are kept.
+ */
+public class EventTracer {
+
+    public static final String TRACE_ID = "traceId";
+    public static final int MAX_TRACES = 100;
+    public static final int MAX_SPANS = 256;
+    // Events with a known span, only events still handled by listeners need one - older entries are evicted first
+    public static final int MAX_TRACKED_EVENTS = 4096;
+    // Marks events over the span limit of their trace, so they are not tried again
+    private static final Object NO_SPAN = new Object();
+
+    private final ThreadLocal<Span> current = new ThreadLocal<>();
+    private final Map<EventKey, Object> spans = new ConcurrentHashMap<>();
+    private final Queue<EventKey> tracked = new ConcurrentLinkedQueue<>();
+    private final AtomicLong ids = new AtomicLong();
+    private final Predicate<Event<?, ?>> traceable;
+    private final Map<Long, Trace> traces = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<Long, Trace> eldest) {
+            return size() > MAX_TRACES;
+        }
+    };
+
+    public static final class Span {
+        private final long id;
+        private final Span parent;
+        private final Trace trace;
+        private final String channel;
+        private final int depth;
+        private final long startNs;
+        private final AtomicLong endNs;
+        private final LongAdder listenerNs = new LongAdder();
+        private volatile boolean acknowledged;
+
+        private Span(final long id, final Span parent, final Trace trace, final String channel) {
+            this.id = id;
+            this.parent = parent;
+            this.trace = trace;
+            this.channel = channel;
+            this.depth = null == parent ? 0 : parent.depth + 1;
+            this.startNs = System.nanoTime();
+            this.endNs = new AtomicLong(startNs);
+        }
+
+        public long traceId() {
+            return trace.id;
+        }
+    }
+
+    // Identity key that doesn't keep the event alive
+    private static final class EventKey extends WeakReference<Object> {
+        private final int hash;
+
+        private EventKey(final Object event) {
+            super(event);
+            this.hash = System.identityHashCode(event);
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            if (this == other)
+                return true;
+            final Object event = get();
+            return other instanceof EventKey key && null != event && event == key.get();
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static final class Trace {
+        private final long id;
+        private final long startMs = System.currentTimeMillis();
+        private final List<Span> spans = new ArrayList<>();
+        private int dropped;
+
+        private Trace(final long id) {
+            this.id = id;
+        }
+    }
+
+    public EventTracer(final Predicate<Event<?, ?>> traceable) {
+        this.traceable = traceable;
+    }
+
+    // Returns the span of the event, creating it under the span currently handled on this thread
+    public Span span(final Event<?, ?> event) {
+        final EventKey key = new EventKey(event);
+        final Object existing = spans.get(key);
+        if (null != existing)
+            return existing instanceof Span span ? span : null;
+        if (!traceable.test(event))
+            return null;
+        final Span parent = current.get();
+        final Object created = spans.computeIfAbsent(key, k -> {
+            tracked.add(k);
+            final Span span = newSpan(parent, event.channel().name());
+            // Spans beyond the per trace limit are only counted
+            return null == span ? NO_SPAN : span;
+        });
+        evictTracked();
+        if (!(created instanceof Span span))
+            return null;
+        if (null == event.get(TRACE_ID))
+            event.put(TRACE_ID, Long.toHexString(span.traceId()));
+        return span;
+    }
+
+    // Called by listener wrappers around each invocation, the returned span has to be handed back to exit in a finally
+    public Span enter(final Object event) {
+        final Span previous = current.get();
+        current.set(event instanceof Event<?, ?> ev ? span(ev) : null);
+        return previous;
+    }
+
+    public void exit(final Object event, final Span previous, final long listenerNs) {
+        if (event instanceof Event<?, ?> ev && spans.get(new EventKey(ev)) instanceof Span span) {
+            span.listenerNs.add(listenerNs);
+            span.endNs.accumulateAndGet(System.nanoTime(), Math::max);
+            if (ev.isAcknowledged())
+                span.acknowledged = true;
+        }
+        if (null == previous)
+            current.remove();
+        else
+            current.set(previous);
+    }
+
+    // Runs the task under the span of the calling thread, for work a listener hands to another thread
+    public Runnable propagate(final Runnable task) {
+        final Span span = current.get();
+        if (null == span)
+            return task;
+        return () -> {
+            final Span previous = current.get();
+            current.set(span);
+            try {
+                task.run();
+            } finally {
+                if (null == previous)
+                    current.remove();
+                else
+                    current.set(previous);
+            }
+        };
+    }
+
+    public TypeList traces(final int limit) {
+        final List<Trace> newestFirst;
+        synchronized (traces) {
+            newestFirst = new ArrayList<>(traces.values());
+        }
+        final TypeList result = new TypeList();
+        for (int i = newestFirst.size() - 1; i >= 0 && result.size() < limit; i--)
+            result.add(describe(newestFirst.get(i)));
+        return result;
+    }
+
+    public void clear() {
+        synchronized (traces) {
+            traces.clear();
+        }
+        spans.clear();
+        tracked.clear();
+    }
+
+    // Oldest first, entries of collected events go the same way
+    private void evictTracked() {
+        while (spans.size() > MAX_TRACKED_EVENTS) {
+            final EventKey eldest = tracked.poll();
+            if (null == eldest)
+                return;
+            spans.remove(eldest);
+        }
+    }
+
+    private Span newSpan(final Span parent, final String channel) {
+        if (null == parent) {
+            final Trace trace = new Trace(ids.incrementAndGet());
+            final Span root = new Span(ids.incrementAndGet(), null, trace, channel);
+            trace.spans.add(root);
+            synchronized (traces) {
+                traces.put(trace.id, trace);
+            }
+            return root;
+        }
+        final Trace trace = parent.trace;
+        synchronized (trace) {
+            if (trace.spans.size() >= MAX_SPANS) {
+                trace.dropped++;
+                return null;
+            }
+            final Span span = new Span(ids.incrementAndGet(), parent, trace, channel);
+            trace.spans.add(span);
+            return span;
+        }
+    }
+
+    private static LinkedTypeMap describe(final Trace trace) {
+        final List<Span> spans;
+        final int dropped;
+        synchronized (trace) {
+            spans = new ArrayList<>(trace.spans);
+            dropped = trace.dropped;
+        }
+        final long startNs = spans.getFirst().startNs;
+        long endNs = startNs;
+        final TypeList spanList = new TypeList();
+        for (Span span : spans) {
+            final long spanEnd = span.endNs.get();
+            endNs = Math.max(endNs, spanEnd);
+            final LinkedTypeMap entry = new LinkedTypeMap()
+                .putR("id", Long.toHexString(span.id))
+                .putR("channel", span.channel)
+                .putR("depth", span.depth)
+                .putR("offsetMs", millis(span.startNs - startNs))
+                .putR("durationMs", millis(spanEnd - span.startNs))
+                .putR("listenerMs", millis(span.listenerNs.sum()))
+                .putR("isAck", span.acknowledged);
+            if (null != span.parent)
+                entry.putR("parentId", Long.toHexString(span.parent.id));
+            spanList.add(entry);
+        }
+        return new LinkedTypeMap()
+            .putR(TRACE_ID, Long.toHexString(trace.id))
+            .putR("root", spans.getFirst().channel)
+            .putR("startMs", trace.startMs)
+            .putR("durationMs", millis(endNs - startNs))
+            .putR("spanCount", spans.size())
+            .putR("dropped", dropped)
+            .putR("spans", spanList);
+    }
+
+    private static double millis(final long nanos) {
+        return Math.round(nanos / 1000.0) / 1000.0;
+    }
+}
@@ -0,0 +1,251 @@
+package org.nanonative.devconsole.util;
+
+import berlin.yuna.typemap.model.LinkedTypeMap;
+import com.sun.management.HotSpotDiagnosticMXBean;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes heap dumps through the {@link HotSpotDiagnosticMXBean} into a temporary file and gzips it with a fixed size
+ * buffer. Clients download the compressed file in chunks of {@link #CHUNK_BYTES}, so no request holds more than one
+ * chunk in memory. Only one dump runs at a time. The last ready dump stays available until a new one is ready, a failed
+ * dump never replaces it. Every dump has an id and chunks are only served for the id asked for, so a download can't mix
+ * two dumps. A replaced dump's file is deleted once no chunk of it is being read.
+ */
+public class HeapDumper {
+
+    public static final int CHUNK_BYTES = 4 * 1024 * 1024;
+    public static final int BUFFER_BYTES = 64 * 1024;
+    public static final String RUNNING = "running";
+    public static final String READY = "ready";
+    public static final String FAILED = "failed";
+
+    private final Executor executor;
+    private final HeapWriter writer;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong sequence = new AtomicLong();
+    // Latest started dump, may still run or have failed
+    private volatile Dump current;
+    // Latest complete dump, the one chunks are read from
+    private volatile Dump ready;
+
+    // Writes an uncompressed heap dump to the given file
+    @FunctionalInterface
+    public interface HeapWriter {
+        void write(Path file, boolean live) throws IOException;
+    }
+
+    private static final class Dump {
+        private final String id;
+        private final boolean live;
+        private final long startedMs = System.currentTimeMillis();
+        // Chunks being read, -1 once the files are deleted
+        private final AtomicInteger readers = new AtomicInteger();
+        private volatile boolean retired;
+        private volatile String state = RUNNING;
+        private volatile Path dir;
+        private volatile Path file;
+        private volatile long rawBytes;
+        private volatile long gzipBytes;
+        private volatile long durationMs;
+        private volatile String error;
+
+        private Dump(final String id, final boolean live) {
+            this.id = id;
+            this.live = live;
+        }
+
+        private boolean acquire() {
+            for (int n = readers.get(); n >= 0; n = readers.get()) {
+                if (readers.compareAndSet(n, n + 1)) {
+                    if (!retired)
+                        return true;
+                    release();
+                    return false;
+                }
+            }
+            return false;
+        }
+
+        private void release() {
+            if (readers.decrementAndGet() == 0 && retired)
+                deleteFiles();
+        }
+
+        // The files go with the last reader
+        private void retire() {
+            retired = true;
+            deleteFiles();
+        }
+
+        private void deleteFiles() {
+            if (readers.compareAndSet(0, -1))
+                delete(this);
+        }
+    }
+
+    public HeapDumper(final Executor executor) {
+        this(executor, HeapDumper::hotSpotDump);
+    }
+
+    public HeapDumper(final Executor executor, final HeapWriter writer) {
+        this.executor = executor;
+        this.writer = writer;
+    }
+
+    // Live dumps only contain reachable objects and trigger a full GC, which keeps them a lot smaller
+    public LinkedTypeMap start(final boolean live) {
+        if (!running.compareAndSet(false, true))
+            throw new IllegalStateException("Heap dump is already running");
+        // Unique across restarts, so a client resuming an old download can't match a new dump
+        final Dump dump = new Dump(Long.toString(System.currentTimeMillis(), 36) + "-" + sequence.incrementAndGet(), live);
+        current = dump;
+        executor.execute(() -> {
+            final long startNs = System.nanoTime();
+            String state = FAILED;
+            try {
+                write(dump);
+                final Dump previous = ready;
+                ready = dump;
+                if (null != previous)
+                    previous.retire();
+                state = READY;
+            } catch (Exception e) {
+                dump.error = e.getMessage();
+                delete(dump);
+            } finally {
+                dump.durationMs = SystemUtil.elapsedMs(startNs);
+                // Released before the state is published, a client that sees the result can start the next dump
+                running.set(false);
+                dump.state = state;
+            }
+        });
+        return status();
+    }
+
+    public LinkedTypeMap status() {
+        final Dump dump = current;
+        if (null == dump)
+            return new LinkedTypeMap().putR("state", "none");
+        final LinkedTypeMap status = describe(dump);
+        // While a new dump runs or after it failed, the previous one can still be downloaded
+        final Dump available = ready;
+        if (null != available && available != dump)
+            status.putR("previous", describe(available));
+        return status;
+    }
+
+    // Reads one chunk of the given dump with positional reads, the file is never loaded as a whole
+    public byte[] chunk(final String id, final int index) throws IOException {
+        final Dump dump = ready;
+        if (null == dump)
+            throw new IllegalStateException("No heap dump available");
+        if (!dump.id.equals(id) || !dump.acquire())
+            throw new NoSuchFileException("Heap dump [" + id + "] is no longer available, the current one is [" + dump.id + "]");
+        try {
+            if (index < 0 || index >= chunks(dump))
+                throw new IllegalArgumentException("Chunk [" + index + "] out of range [0-" + (chunks(dump) - 1) + "]");
+            final long position = (long) index * CHUNK_BYTES;
+            final ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(CHUNK_BYTES, dump.gzipBytes - position));
+            try (FileChannel channel = FileChannel.open(dump.file, StandardOpenOption.READ)) {
+                long offset = position;
+                while (buffer.hasRemaining()) {
+                    final int read = channel.read(buffer, offset);
+                    if (read < 0)
+                        break;
+                    offset += read;
+                }
+            }
+            return buffer.array();
+        } finally {
+            dump.release();
+        }
+    }
+
+    public void delete() {
+        if (running.get())
+            throw new IllegalStateException("Heap dump is still running");
+        final Dump dump = current;
+        final Dump available = ready;
+        current = null;
+        ready = null;
+        if (null != dump)
+            dump.retire();
+        if (null != available)
+            available.retire();
+    }
+
+    private static LinkedTypeMap describe(final Dump dump) {
+        final LinkedTypeMap status = new LinkedTypeMap()
+            .putR("id", dump.id)
+            .putR("state", dump.state)
+            .putR("live", dump.live)
+            .putR("startedMs", dump.startedMs);
+        if (READY.equals(dump.state)) {
+            status.putR("durationMs", dump.durationMs)
+                .putR("rawBytes", dump.rawBytes)
+                .putR("gzipBytes", dump.gzipBytes)
+                .putR("chunkBytes", CHUNK_BYTES)
+                .putR("chunks", chunks(dump));
+        } else if (FAILED.equals(dump.state)) {
+            status.putR("durationMs", dump.durationMs).putR("error", dump.error);
+        }
+        return status;
+    }
+
+    private static void hotSpotDump(final Path file, final boolean live) throws IOException {
+        ManagementFactory.getPlatformMXBean(HotSpotDiagnosticMXBean.class).dumpHeap(file.toString(), live);
+    }
+
+    private void write(final Dump dump) throws IOException {
+        dump.dir = Files.createTempDirectory("nano-heap-");
+        dump.dir.toFile().deleteOnExit();
+        final Path hprof = dump.dir.resolve("heap.hprof");
+        final Path gzip = dump.dir.resolve("heap.hprof.gz");
+        try {
+            writer.write(hprof, dump.live);
+            dump.rawBytes = Files.size(hprof);
+            try (InputStream in = Files.newInputStream(hprof);
+                 OutputStream out = new GZIPOutputStream(Files.newOutputStream(gzip), BUFFER_BYTES)) {
+                final byte[] buffer = new byte[BUFFER_BYTES];
+                int read;
+                while ((read = in.read(buffer)) >= 0)
+                    out.write(buffer, 0, read);
+            }
+            gzip.toFile().deleteOnExit();
+            dump.gzipBytes = Files.size(gzip);
+            dump.file = gzip;
+        } finally {
+            Files.deleteIfExists(hprof);
+        }
+    }
+
+    private static long chunks(final Dump dump) {
+        return (dump.gzipBytes + CHUNK_BYTES - 1) / CHUNK_BYTES;
+    }
+
+    private static void delete(final Dump dump) {
+        if (null == dump || null == dump.dir)
+            return;
+        try {
+            Files.deleteIfExists(dump.dir.resolve("heap.hprof.gz"));
+            Files.deleteIfExists(dump.dir);
+        } catch (IOException ignored) {
+            // Temp files are also removed on exit
+        }
+    }
+}
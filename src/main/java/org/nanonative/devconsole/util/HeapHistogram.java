@@ -0,0 +1,114 @@
+package org.nanonative.devconsole.util;
+
+import berlin.yuna.typemap.model.LinkedTypeMap;
+import berlin.yuna.typemap.model.TypeList;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Class histogram of the heap via the DiagnosticCommand MBean, the same data as {@code jcmd <pid> GC.class_histogram}.
+ * Like jcmd it runs a full GC first, so callers should cache the result. Only the top classes by bytes and by instance
+ * count are kept while parsing, the full output is never turned into objects.
+ */
+public class HeapHistogram {
+
+    public static final int DEFAULT_LIMIT = 50;
+    public static final int MAX_LIMIT = 1000;
+
+    //    1:         12345        6789012  [B (java.base@21)
+    private static final Pattern ROW = Pattern.compile("^\\s*\\d+:\\s+(\\d+)\\s+(\\d+)\\s+(\\S+)(?:\\s+\\((.*)\\))?\\s*$");
+    private static final Pattern TOTAL = Pattern.compile("^\\s*Total\\s+(\\d+)\\s+(\\d+)\\s*$");
+
+    private record Row(String className, String module, long instances, long bytes) {}
+
+    private HeapHistogram() {}
+
+    public static LinkedTypeMap snapshot(final int limit) {
+        final long startNs = System.nanoTime();
+        final String output;
+        try {
+            output = (String) ManagementFactory.getPlatformMBeanServer().invoke(
+                new ObjectName("com.sun.management:type=DiagnosticCommand"),
+                "gcClassHistogram",
+                new Object[]{new String[0]},
+                new String[]{String[].class.getName()});
+        } catch (JMException e) {
+            throw new IllegalStateException("Class histogram is not available on this JVM: " + e.getMessage(), e);
+        }
+        return parse(output, limit).putR("durationMs", SystemUtil.elapsedMs(startNs));
+    }
+
+    public static LinkedTypeMap parse(final String output, final int limit) {
+        final int max = Math.clamp(limit, 1, MAX_LIMIT);
+        final List<Row> byBytes = new ArrayList<>(max);
+        // Min-heap of the largest instance counts seen so far
+        final PriorityQueue<Row> byInstances = new PriorityQueue<>(max + 1, Comparator.comparingLong(Row::instances));
+        long classes = 0;
+        long totalInstances = 0;
+        long totalBytes = 0;
+        for (String line : (Iterable<String>) output.lines()::iterator) {
+            final Matcher row = ROW.matcher(line);
+            if (row.matches()) {
+                classes++;
+                final Row entry = new Row(row.group(3), row.group(4), Long.parseLong(row.group(1)), Long.parseLong(row.group(2)));
+                // The JVM sorts the histogram by bytes
+                if (byBytes.size() < max)
+                    byBytes.add(entry);
+                byInstances.offer(entry);
+                if (byInstances.size() > max)
+                    byInstances.poll();
+                continue;
+            }
+            final Matcher total = TOTAL.matcher(line);
+            if (total.matches()) {
+                totalInstances = Long.parseLong(total.group(1));
+                totalBytes = Long.parseLong(total.group(2));
+            }
+        }
+        final List<Row> topInstances = new ArrayList<>(byInstances);
+        topInstances.sort(Comparator.comparingLong(Row::instances).reversed());
+        return new LinkedTypeMap()
+            .putR("takenAt", System.currentTimeMillis())
+            .putR("classes", classes)
+            .putR("totalInstances", totalInstances)
+            .putR("totalBytes", totalBytes)
+            .putR("byBytes", toList(byBytes))
+            .putR("byInstances", toList(topInstances));
+    }
+
+    // Cuts a snapshot taken at a higher limit down to the requested top classes, the snapshot itself is not changed
+    public static LinkedTypeMap top(final LinkedTypeMap snapshot, final int limit) {
+        final int max = Math.clamp(limit, 1, MAX_LIMIT);
+        final LinkedTypeMap result = new LinkedTypeMap();
+        snapshot.forEach((key, value) -> result.put(key, value instanceof List<?> rows ? slice(rows, max) : value));
+        return result;
+    }
+
+    private static TypeList slice(final List<?> rows, final int max) {
+        final TypeList result = new TypeList();
+        result.addAll(rows.subList(0, Math.min(max, rows.size())));
+        return result;
+    }
+
+    private static TypeList toList(final List<Row> rows) {
+        final TypeList result = new TypeList();
+        for (Row row : rows) {
+            final LinkedTypeMap entry = new LinkedTypeMap()
+                .putR("className", row.className())
+                .putR("instances", row.instances())
+                .putR("bytes", row.bytes());
+            if (null != row.module())
+                entry.putR("module", row.module());
+            result.add(entry);
+        }
+        return result;
+    }
+}
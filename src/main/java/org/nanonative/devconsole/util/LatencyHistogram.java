@@ -0,0 +1,97 @@
+package org.nanonative.devconsole.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+// Lock-free log2 histogram of nanosecond durations - fixed 64 buckets, percentiles are bucket upper bounds
+public class LatencyHistogram {
+
+    private final AtomicLongArray buckets = new AtomicLongArray(64);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sumNs = new LongAdder();
+    private final LongAccumulator maxNs = new LongAccumulator(Long::max, 0);
+
+    public void record(final long nanos) {
+        final long value = Math.max(0, nanos);
+        buckets.incrementAndGet(64 - Long.numberOfLeadingZeros(value) - (value == 0 ? 0 : 1));
+        count.increment();
+        sumNs.add(value);
+        maxNs.accumulate(value);
+    }
+
+    public long count() {
+        return count.sum();
+    }
+
+    public long maxNanos() {
+        return maxNs.get();
+    }
+
+    public double meanMicros() {
+        final long n = count.sum();
+        return n == 0 ? 0.0 : round(sumNs.sum() / 1000.0 / n);
+    }
+
+    public double percentileMicros(final double percentile) {
+        final long total = count.sum();
+        if (total == 0)
+            return 0.0;
+        final long rank = (long) Math.ceil(total * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < 64; i++) {
+            seen += buckets.get(i);
+            if (seen >= rank)
+                return round(Math.min(i >= 62 ? Long.MAX_VALUE : (2L << i) - 1, maxNs.get()) / 1000.0);
+        }
+        return round(maxNs.get() / 1000.0);
+    }
+
+    // Bucket counts at this moment, two of them give the recordings of the interval in between
+    public long[] bucketCounts() {
+        final long[] counts = new long[64];
+        for (int i = 0; i < 64; i++)
+            counts[i] = buckets.get(i);
+        return counts;
+    }
+
+    // Percentile of the recordings between two bucket snapshots, interpolated linearly inside the log2 bucket - NaN if none
+    public static double percentileMicros(final long[] before, final long[] after, final double percentile) {
+        long total = 0;
+        for (int i = 0; i < 64; i++)
+            total += after[i] - before[i];
+        if (total <= 0)
+            return Double.NaN;
+        final double rank = Math.max(1, Math.ceil(total * percentile / 100.0));
+        long seen = 0;
+        for (int i = 0; i < 64; i++) {
+            final long inBucket = after[i] - before[i];
+            if (inBucket <= 0)
+                continue;
+            if (seen + inBucket >= rank) {
+                final double lower = 0 == i ? 0 : (double) (1L << i);
+                final double upper = i >= 62 ? Long.MAX_VALUE : (double) ((2L << i) - 1);
+                return round((lower + (upper - lower) * (rank - seen) / inBucket) / 1000.0);
+            }
+            seen += inBucket;
+        }
+        return Double.NaN;
+    }
+
+    public Map<String, Object> snapshot() {
+        final Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("count", count());
+        snapshot.put("avgMicros", meanMicros());
+        snapshot.put("p50Micros", percentileMicros(50));
+        snapshot.put("p90Micros", percentileMicros(90));
+        snapshot.put("p99Micros", percentileMicros(99));
+        snapshot.put("maxMicros", round(maxNs.get() / 1000.0));
+        return snapshot;
+    }
+
+    private static double round(final double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+}
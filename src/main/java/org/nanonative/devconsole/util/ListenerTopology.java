@@ -0,0 +1,297 @@
+package org.nanonative.devconsole.util;
+
+import berlin.yuna.typemap.model.LinkedTypeMap;
+import berlin.yuna.typemap.model.TypeList;
+import org.nanonative.nano.core.model.Service;
+import org.nanonative.nano.helper.event.model.Channel;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Event bus topology: which listener is subscribed to which channel and which service owns it.
+ * The listener map is only rebuilt when its cheap fingerprint (channel count and set sizes) changes.
+ * With profiling or tracing switched on, each channel's listener set is replaced by a {@link ProfiledSet} view in Nano's
+ * listener map and put back when both are switched off again. The view keeps the original set as the only source of
+ * truth and hands out timing wrappers while it is iterated, so subscribing and unsubscribing by the original reference
+ * work exactly as without the console.
+ */
+@SuppressWarnings("unchecked")
+public class ListenerTopology {
+
+    private final AtomicLong version = new AtomicLong(0);
+    private volatile boolean profiling;
+    private volatile EventTracer tracer;
+    private long fingerprint = -1;
+    private long wrappedFingerprint = -1;
+    private Map<String, List<ListenerInfo>> cached = Map.of();
+
+    public record ListenerInfo(String id, String owner, String kind, Consumer<?> listener) {}
+
+    // Timing wrapper handed to the dispatch in place of the original listener while profiling or tracing is on
+    public static final class ProfiledListener implements Consumer<Object> {
+        private final ListenerTopology owner;
+        private final Consumer<Object> delegate;
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder errors = new LongAdder();
+
+        private ProfiledListener(final ListenerTopology owner, final Consumer<Object> delegate) {
+            this.owner = owner;
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void accept(final Object event) {
+            final EventTracer tracer = owner.tracer;
+            final EventTracer.Span previous = null == tracer ? null : tracer.enter(event);
+            final long startNs = System.nanoTime();
+            try {
+                delegate.accept(event);
+            } catch (RuntimeException e) {
+                errors.increment();
+                throw e;
+            } finally {
+                final long elapsedNs = System.nanoTime() - startNs;
+                latency.record(elapsedNs);
+                if (null != tracer)
+                    tracer.exit(event, previous, elapsedNs);
+            }
+        }
+
+        public Consumer<Object> delegate() {
+            return delegate;
+        }
+
+        public LatencyHistogram latency() {
+            return latency;
+        }
+
+        public long errors() {
+            return errors.sum();
+        }
+    }
+
+    // Listener set view: all changes go to the original set, iteration yields one cached wrapper per listener
+    public static final class ProfiledSet extends AbstractSet<Object> {
+        private final ListenerTopology owner;
+        private final Set<Object> delegate;
+        private final Map<Object, ProfiledListener> wrappers = new ConcurrentHashMap<>();
+
+        private ProfiledSet(final ListenerTopology owner, final Set<Object> delegate) {
+            this.owner = owner;
+            this.delegate = delegate;
+        }
+
+        public Set<Object> delegate() {
+            return delegate;
+        }
+
+        @Override
+        public Iterator<Object> iterator() {
+            final Iterator<Object> it = delegate.iterator();
+            return new Iterator<>() {
+                private Object last;
+
+                @Override
+                public boolean hasNext() {
+                    return it.hasNext();
+                }
+
+                @Override
+                public Object next() {
+                    last = it.next();
+                    return wrap(last);
+                }
+
+                @Override
+                public void remove() {
+                    it.remove();
+                    wrappers.remove(last);
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return delegate.size();
+        }
+
+        @Override
+        public boolean contains(final Object listener) {
+            return delegate.contains(unwrap(listener));
+        }
+
+        @Override
+        public boolean add(final Object listener) {
+            return delegate.add(unwrap(listener));
+        }
+
+        @Override
+        public boolean remove(final Object listener) {
+            final Object original = unwrap(listener);
+            wrappers.remove(original);
+            return delegate.remove(original);
+        }
+
+        @Override
+        public void clear() {
+            delegate.clear();
+            wrappers.clear();
+        }
+
+        private Object wrap(final Object listener) {
+            return listener instanceof Consumer<?> consumer
+                ? wrappers.computeIfAbsent(listener, l -> new ProfiledListener(owner, (Consumer<Object>) consumer))
+                : listener;
+        }
+
+        // Forgets wrappers of listeners removed through a reference to the original set
+        private void prune() {
+            wrappers.keySet().retainAll(delegate);
+        }
+
+        private static Object unwrap(final Object listener) {
+            return listener instanceof ProfiledListener profiled ? profiled.delegate() : listener;
+        }
+    }
+
+    public boolean isProfiling() {
+        return profiling;
+    }
+
+    public long version() {
+        return version.get();
+    }
+
+    public EventTracer tracer() {
+        return tracer;
+    }
+
+    public synchronized void profiling(final boolean enabled, final Map<?, ? extends Set<?>> listeners) {
+        profiling = enabled;
+        reconcile(listeners);
+    }
+
+    // A null tracer switches tracing off
+    public synchronized void tracing(final EventTracer tracer, final Map<?, ? extends Set<?>> listeners) {
+        this.tracer = tracer;
+        reconcile(listeners);
+    }
+
+    // Puts the view over channels created since the last call, cheap no-op when nothing changed
+    public synchronized void wrapNew(final Map<?, ? extends Set<?>> listeners) {
+        if (!instrumented() || fingerprint(listeners) == wrappedFingerprint)
+            return;
+        final Map<Object, Set<?>> map = (Map<Object, Set<?>>) listeners;
+        for (Map.Entry<Object, Set<?>> entry : map.entrySet().toArray(Map.Entry[]::new)) {
+            if (entry.getValue() instanceof ProfiledSet view)
+                view.prune();
+            else
+                swap(map, entry.getKey(), entry.getValue(), new ProfiledSet(this, (Set<Object>) entry.getValue()));
+        }
+        wrappedFingerprint = fingerprint(listeners);
+    }
+
+    public synchronized void unwrapAll(final Map<?, ? extends Set<?>> listeners) {
+        final Map<Object, Set<?>> map = (Map<Object, Set<?>>) listeners;
+        for (Map.Entry<Object, Set<?>> entry : map.entrySet().toArray(Map.Entry[]::new)) {
+            if (entry.getValue() instanceof ProfiledSet view)
+                swap(map, entry.getKey(), view, view.delegate());
+        }
+        wrappedFingerprint = -1;
+    }
+
+    public synchronized TypeList topology(final Map<?, ? extends Set<?>> listeners, final Collection<Service> services) {
+        refresh(listeners);
+        final Map<String, String> serviceByClass = new TreeMap<>();
+        services.forEach(svc -> serviceByClass.put(svc.getClass().getName(), svc.name()));
+
+        final TypeList channels = new TypeList();
+        cached.forEach((channel, infos) -> {
+            final TypeList subscribers = new TypeList();
+            for (ListenerInfo info : infos) {
+                final LinkedTypeMap entry = new LinkedTypeMap()
+                    .putR("id", info.id())
+                    .putR("owner", info.owner())
+                    .putR("kind", info.kind());
+                final String service = serviceByClass.get(info.owner());
+                if (null != service)
+                    entry.putR("service", service);
+                if (profiling && info.listener() instanceof ProfiledListener profiled) {
+                    entry.putR("errors", profiled.errors());
+                    entry.putR("latency", profiled.latency().snapshot());
+                }
+                subscribers.add(entry);
+            }
+            channels.add(new LinkedTypeMap().putR("channel", channel).putR("listenerCount", infos.size()).putR("listeners", subscribers));
+        });
+        return channels;
+    }
+
+    private boolean instrumented() {
+        return profiling || null != tracer;
+    }
+
+    private void reconcile(final Map<?, ? extends Set<?>> listeners) {
+        if (instrumented())
+            wrapNew(listeners);
+        else
+            unwrapAll(listeners);
+    }
+
+    private void refresh(final Map<?, ? extends Set<?>> listeners) {
+        final long current = fingerprint(listeners);
+        if (current == fingerprint)
+            return;
+        final Map<String, List<ListenerInfo>> rebuilt = new TreeMap<>();
+        listeners.forEach((channel, set) -> {
+            final List<ListenerInfo> infos = new ArrayList<>();
+            for (Object listener : set.toArray()) {
+                if (listener instanceof Consumer<?> consumer)
+                    infos.add(describe(consumer));
+            }
+            rebuilt.put(channel instanceof Channel<?, ?> ch ? ch.name() : String.valueOf(channel), infos);
+        });
+        cached = rebuilt;
+        fingerprint = current;
+        version.incrementAndGet();
+    }
+
+    private static ListenerInfo describe(final Consumer<?> listener) {
+        final Consumer<?> target = listener instanceof ProfiledListener profiled ? profiled.delegate() : listener;
+        final String className = target.getClass().getName();
+        final int lambda = className.indexOf("$$Lambda");
+        final String kind = lambda > 0 ? "lambda" : (className.matches(".*\\$\\d+$") ? "anonymous" : "class");
+        String owner = lambda > 0 ? className.substring(0, lambda) : className;
+        if ("anonymous".equals(kind))
+            owner = owner.substring(0, owner.lastIndexOf('$'));
+        return new ListenerInfo(className + "@" + Integer.toHexString(System.identityHashCode(target)), owner, kind, listener);
+    }
+
+    private static long fingerprint(final Map<?, ? extends Set<?>> listeners) {
+        long hash = listeners.size();
+        for (Set<?> set : listeners.values())
+            hash = hash * 31 + System.identityHashCode(set) * 17L + set.size();
+        return hash;
+    }
+
+    // Only swaps if the channel still maps to the expected set, a dispatch always finds the same listeners in either
+    private void swap(final Map<Object, Set<?>> listeners, final Object channel, final Set<?> current, final Set<?> replacement) {
+        try {
+            if (listeners.replace(channel, current, replacement))
+                fingerprint = -1;
+        } catch (UnsupportedOperationException ignored) {
+            // Read-only listener maps can't be profiled, topology still works
+        }
+    }
+}
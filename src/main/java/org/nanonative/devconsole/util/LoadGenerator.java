@@ -0,0 +1,189 @@
+package org.nanonative.devconsole.util;
+
+import berlin.yuna.typemap.model.LinkedTypeMap;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.ToLongFunction;
+
+/**
+ * Drives the event bus from the console. Replay re-sends captured events in their original order, paced by their
+ * original timestamps divided by the speed factor (0 = as fast as possible). Synthetic load sends generated payloads at
+ * a target rate, open loop: a send slot that finds all concurrency permits taken is counted as dropped instead of
+ * queued, so a saturated bus shows up as drops rather than as an ever growing backlog. Only one run at a time.
+ */
+public class LoadGenerator {
+
+    public static final String LOADGEN_KEY = "devConsoleLoadgen";
+    public static final int MAX_CONCURRENCY = 1024;
+    public static final int MAX_PAYLOAD_BYTES = 1024 * 1024;
+    public static final long MAX_DURATION_MS = TimeUnit.MINUTES.toMillis(5);
+
+    private final Executor executor;
+    private final AtomicReference<Run> current = new AtomicReference<>();
+
+    @FunctionalInterface
+    public interface Sender<T> {
+        // Returns true when the event got acknowledged
+        boolean send(T item) throws Exception;
+    }
+
+    public static final class Run {
+        private final String mode;
+        private final LinkedTypeMap target;
+        private final long startNs = System.nanoTime();
+        private final LongAdder sent = new LongAdder();
+        private final LongAdder acked = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder dropped = new LongAdder();
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private volatile boolean cancelled;
+        private volatile long endNs;
+
+        private Run(final String mode, final LinkedTypeMap target) {
+            this.mode = mode;
+            this.target = target;
+        }
+
+        public boolean running() {
+            return endNs == 0;
+        }
+
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public LinkedTypeMap status() {
+            final long end = endNs;
+            final long elapsedNs = (0 == end ? System.nanoTime() : end) - startNs;
+            final long count = sent.sum();
+            return new LinkedTypeMap()
+                .putR("mode", mode)
+                .putR("running", 0 == end)
+                .putR("cancelled", cancelled)
+                .putR("target", target)
+                .putR("elapsedMs", TimeUnit.NANOSECONDS.toMillis(elapsedNs))
+                .putR("sent", count)
+                .putR("acknowledged", acked.sum())
+                .putR("failed", failed.sum())
+                .putR("dropped", dropped.sum())
+                .putR("throughputPerSecond", elapsedNs <= 0 ? 0.0 : Math.round(count * 1e10 / elapsedNs) / 10.0)
+                .putR("sendLatency", latency.snapshot());
+        }
+
+        private <T> void send(final Sender<T> sender, final T item) {
+            final long t0 = System.nanoTime();
+            try {
+                final boolean ack = sender.send(item);
+                latency.record(System.nanoTime() - t0);
+                sent.increment();
+                if (ack)
+                    acked.increment();
+            } catch (Exception e) {
+                failed.increment();
+            }
+        }
+    }
+
+    public LoadGenerator(final Executor executor) {
+        this.executor = executor;
+    }
+
+    public Run current() {
+        return current.get();
+    }
+
+    public void cancel() {
+        final Run run = current.get();
+        if (null != run)
+            run.cancel();
+    }
+
+    public <T> Run replay(final List<T> items, final ToLongFunction<T> timestampMs, final double speed, final int concurrency, final Sender<T> sender) {
+        final Run run = begin("replay", new LinkedTypeMap().putR("events", items.size()).putR("speed", speed).putR("concurrency", concurrency));
+        executor.execute(() -> {
+            final Semaphore permits = new Semaphore(concurrency);
+            try {
+                final long firstMs = items.isEmpty() ? 0 : timestampMs.applyAsLong(items.getFirst());
+                for (T item : items) {
+                    if (run.cancelled)
+                        break;
+                    if (speed > 0)
+                        parkUntil(run.startNs + (long) ((timestampMs.applyAsLong(item) - firstMs) * 1_000_000 / speed), run);
+                    permits.acquire();
+                    executor.execute(() -> {
+                        try {
+                            run.send(sender, item);
+                        } finally {
+                            permits.release();
+                        }
+                    });
+                }
+                permits.acquire(concurrency);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                run.endNs = System.nanoTime();
+            }
+        });
+        return run;
+    }
+
+    public Run synthetic(final double rate, final long durationMs, final int payloadBytes, final int concurrency, final Sender<byte[]> sender) {
+        final Run run = begin("synthetic", new LinkedTypeMap().putR("rate", rate).putR("durationMs", durationMs).putR("payloadBytes", payloadBytes).putR("concurrency", concurrency));
+        // Shared read-only payload - the bus is measured, not the allocator
+        final byte[] payload = new byte[payloadBytes];
+        executor.execute(() -> {
+            final Semaphore permits = new Semaphore(concurrency);
+            final long endNs = run.startNs + TimeUnit.MILLISECONDS.toNanos(durationMs);
+            final long intervalNs = rate > 0 ? Math.max(1, (long) (1e9 / rate)) : 0;
+            long nextNs = run.startNs;
+            try {
+                while (!run.cancelled && System.nanoTime() < endNs) {
+                    if (intervalNs > 0) {
+                        parkUntil(nextNs, run);
+                        nextNs += intervalNs;
+                        if (!permits.tryAcquire()) {
+                            run.dropped.increment();
+                            continue;
+                        }
+                    } else {
+                        permits.acquire();
+                    }
+                    executor.execute(() -> {
+                        try {
+                            run.send(sender, payload);
+                        } finally {
+                            permits.release();
+                        }
+                    });
+                }
+                permits.acquire(concurrency);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                run.endNs = System.nanoTime();
+            }
+        });
+        return run;
+    }
+
+    private Run begin(final String mode, final LinkedTypeMap target) {
+        final Run run = new Run(mode, target);
+        final Run previous = current.get();
+        if ((null != previous && previous.running()) || !current.compareAndSet(previous, run))
+            throw new IllegalStateException("Load generator is already running");
+        return run;
+    }
+
+    private static void parkUntil(final long deadlineNs, final Run run) {
+        long remaining;
+        while (!run.cancelled && (remaining = deadlineNs - System.nanoTime()) > 0)
+            LockSupport.parkNanos(Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(100)));
+    }
+}
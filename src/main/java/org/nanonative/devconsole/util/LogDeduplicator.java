@@ -0,0 +1,224 @@
+package org.nanonative.devconsole.util;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.logging.LogRecord;
+
+/**
+ * Collapses repeated log records at capture time. Records with the same logger, level and message template seen within
+ * the window are counted on the already retained entry instead of being formatted and stored again. The lookup keeps
+ * only the most recent keys, so interleaved storms of a few loggers collapse too. Also counts records per logger.
+ * Published entries carry a stable id and a version that grows on every collapse, so readers can ask for changes only.
+ */
+public class LogDeduplicator {
+
+    public static final int MAX_RECENT_KEYS = 32;
+    public static final int MAX_LOGGERS = 256;
+    public static final String OTHER_LOGGERS = "other";
+    public static final long ENTRY_OVERHEAD = 64;
+
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+
+    private final Map<Key, Entry> recent = new LinkedHashMap<>(MAX_RECENT_KEYS * 2, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<Key, Entry> eldest) {
+            return size() > MAX_RECENT_KEYS;
+        }
+    };
+    private final Map<String, LoggerStats> loggers = new ConcurrentHashMap<>();
+    private final LongAdder collapsed = new LongAdder();
+    private volatile long windowMs;
+    private long version;
+
+    private record Key(String logger, String level, String template, String thrown) {}
+
+    // Retained log line, repeats only bump the counter and last timestamp
+    public static final class Entry {
+        private final String line;
+        private final long firstMs;
+        private final AtomicLong count = new AtomicLong(1);
+        private volatile long lastMs;
+        private volatile boolean evicted;
+        private volatile long id;
+        private volatile long version;
+
+        private Entry(final String line, final long timestampMs) {
+            this.line = line;
+            this.firstMs = timestampMs;
+            this.lastMs = timestampMs;
+        }
+
+        public String line() {
+            return line;
+        }
+
+        public long count() {
+            return count.get();
+        }
+
+        public long id() {
+            return id;
+        }
+
+        public long version() {
+            return version;
+        }
+
+        public long firstMs() {
+            return firstMs;
+        }
+
+        public long lastMs() {
+            return lastMs;
+        }
+
+        public long sizeBytes() {
+            return ENTRY_OVERHEAD + SizeEstimator.estimateString(line);
+        }
+
+        public void evicted() {
+            evicted = true;
+        }
+
+        @Override
+        public String toString() {
+            final long n = count.get();
+            if (n == 1)
+                return line;
+            final int end = line.endsWith("\n") ? line.length() - 1 : line.length();
+            return line.substring(0, end) + " [x" + n + ", first " + TIME.format(Instant.ofEpochMilli(firstMs))
+                + ", last " + TIME.format(Instant.ofEpochMilli(lastMs)) + "]" + line.substring(end);
+        }
+    }
+
+    private static final class LoggerStats {
+        private final LongAdder total = new LongAdder();
+        private final LongAdder collapsed = new LongAdder();
+        private long lastTotal;
+        private long lastNs = System.nanoTime();
+        private double perSecond;
+    }
+
+    public LogDeduplicator(final long windowMs) {
+        this.windowMs = windowMs;
+    }
+
+    public void windowMs(final long windowMs) {
+        this.windowMs = windowMs;
+    }
+
+    public long windowMs() {
+        return windowMs;
+    }
+
+    /**
+     * Returns the new entry to retain or null when the record was folded into an entry that is already retained.
+     * Formatting only happens for records that are actually stored.
+     */
+    public Entry capture(final LogRecord record, final Function<LogRecord, String> formatter) {
+        final String logger = Objects.requireNonNullElse(record.getLoggerName(), "");
+        final LoggerStats stats = stats(logger);
+        stats.total.increment();
+        final long now = record.getMillis();
+        final long window = windowMs;
+        if (window <= 0)
+            return new Entry(formatter.apply(record), now);
+
+        final Key key = new Key(logger, String.valueOf(record.getLevel()), record.getMessage(), null == record.getThrown() ? null : record.getThrown().getClass().getName());
+        synchronized (recent) {
+            final Entry existing = recent.get(key);
+            if (null != existing && !existing.evicted && now - existing.lastMs <= window) {
+                existing.count.incrementAndGet();
+                existing.lastMs = Math.max(existing.lastMs, now);
+                // Unpublished entries get their version once they are visible
+                if (0 != existing.version)
+                    existing.version = ++version;
+                stats.collapsed.increment();
+                collapsed.increment();
+                return null;
+            }
+        }
+        final Entry entry = new Entry(formatter.apply(record), now);
+        synchronized (recent) {
+            recent.put(key, entry);
+        }
+        return entry;
+    }
+
+    // Stamps an entry once it is in the history, so a reader never sees a version before it can see the entry
+    public void publish(final Entry entry) {
+        synchronized (recent) {
+            entry.version = ++version;
+            if (0 == entry.id)
+                entry.id = entry.version;
+        }
+    }
+
+    public long version() {
+        synchronized (recent) {
+            return version;
+        }
+    }
+
+    public long collapsed() {
+        return collapsed.sum();
+    }
+
+    // Top loggers by current rate, rates are refreshed at most once per second
+    public Map<String, Object> rates(final int limit) {
+        final long now = System.nanoTime();
+        final Map<String, Object> result = new LinkedHashMap<>();
+        loggers.entrySet().stream()
+            .peek(e -> refreshRate(e.getValue(), now))
+            .sorted(Comparator.comparingDouble((Map.Entry<String, LoggerStats> e) -> e.getValue().perSecond)
+                .thenComparingLong(e -> e.getValue().total.sum()).reversed())
+            .limit(limit)
+            .forEach(e -> {
+                final Map<String, Object> stats = new LinkedHashMap<>();
+                stats.put("perSecond", e.getValue().perSecond);
+                stats.put("total", e.getValue().total.sum());
+                stats.put("collapsed", e.getValue().collapsed.sum());
+                result.put(e.getKey(), stats);
+            });
+        return result;
+    }
+
+    public void clear() {
+        synchronized (recent) {
+            recent.clear();
+        }
+        loggers.clear();
+        collapsed.reset();
+    }
+
+    private LoggerStats stats(final String logger) {
+        final LoggerStats stats = loggers.get(logger);
+        if (null != stats)
+            return stats;
+        // Bounded so loggers named per request or per instance can't grow this map forever
+        return loggers.size() >= MAX_LOGGERS
+            ? loggers.computeIfAbsent(OTHER_LOGGERS, k -> new LoggerStats())
+            : loggers.computeIfAbsent(logger, k -> new LoggerStats());
+    }
+
+    private static void refreshRate(final LoggerStats stats, final long now) {
+        synchronized (stats) {
+            final long elapsed = now - stats.lastNs;
+            if (elapsed < 1_000_000_000L)
+                return;
+            final long total = stats.total.sum();
+            stats.perSecond = Math.round((total - stats.lastTotal) * 1e9 / elapsed * 10.0) / 10.0;
+            stats.lastTotal = total;
+            stats.lastNs = now;
+        }
+    }
+}
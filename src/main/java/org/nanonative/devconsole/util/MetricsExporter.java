@@ -0,0 +1,99 @@
+package org.nanonative.devconsole.util;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+// Renders Prometheus text / OpenMetrics into one reused buffer, scrapes within the TTL are served from the snapshot
+public class MetricsExporter {
+
+    public static final String OPENMETRICS_CONTENT_TYPE = "application/openmetrics-text; version=1.0.0; charset=utf-8";
+    public static final long DEFAULT_TTL_MS = 1000;
+
+    private final StringBuilder buffer = new StringBuilder(4096);
+    private final long ttlNs;
+    private final Snapshot[] snapshots = new Snapshot[2];
+    private boolean openMetrics;
+
+    private record Snapshot(String text, long renderedAtNs) {}
+
+    public MetricsExporter() {
+        this(DEFAULT_TTL_MS);
+    }
+
+    public MetricsExporter(final long ttlMs) {
+        this.ttlNs = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+    }
+
+    public static boolean acceptsOpenMetrics(final String accept) {
+        return null != accept && accept.contains("application/openmetrics-text");
+    }
+
+    public synchronized String scrape(final boolean openMetrics, final Consumer<MetricsExporter> collector) {
+        final int slot = openMetrics ? 1 : 0;
+        final Snapshot cached = snapshots[slot];
+        final long now = System.nanoTime();
+        if (null != cached && now - cached.renderedAtNs() < ttlNs)
+            return cached.text();
+        this.openMetrics = openMetrics;
+        buffer.setLength(0);
+        collector.accept(this);
+        if (openMetrics)
+            buffer.append("# EOF\n");
+        final String text = buffer.toString();
+        snapshots[slot] = new Snapshot(text, now);
+        return text;
+    }
+
+    public MetricsExporter gauge(final String name, final String help, final double value) {
+        return family(name, help, "gauge").sample(name, null, value);
+    }
+
+    public MetricsExporter counter(final String name, final String help, final double value) {
+        return family(name, help, "counter").sample(name + "_total", null, value);
+    }
+
+    // Counters in OpenMetrics name the family without the _total suffix, the classic text format names it with
+    public MetricsExporter family(final String name, final String help, final String type) {
+        final String familyName = "counter".equals(type) && !openMetrics ? name + "_total" : name;
+        buffer.append("# HELP ").append(familyName).append(' ').append(help).append('\n');
+        buffer.append("# TYPE ").append(familyName).append(' ').append(type).append('\n');
+        return this;
+    }
+
+    public MetricsExporter sample(final String name, final Map<String, String> labels, final double value) {
+        buffer.append(name);
+        if (null != labels && !labels.isEmpty()) {
+            buffer.append('{');
+            boolean first = true;
+            for (Map.Entry<String, String> label : labels.entrySet()) {
+                if (!first)
+                    buffer.append(',');
+                buffer.append(label.getKey()).append("=\"");
+                escape(label.getValue());
+                buffer.append('"');
+                first = false;
+            }
+            buffer.append('}');
+        }
+        buffer.append(' ');
+        if (value == Math.rint(value) && !Double.isInfinite(value) && Math.abs(value) < 1e15)
+            buffer.append((long) value);
+        else
+            buffer.append(value);
+        buffer.append('\n');
+        return this;
+    }
+
+    private void escape(final String value) {
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            switch (c) {
+                case '\\' -> buffer.append("\\\\");
+                case '"' -> buffer.append("\\\"");
+                case '\n' -> buffer.append("\\n");
+                default -> buffer.append(c);
+            }
+        }
+    }
+}
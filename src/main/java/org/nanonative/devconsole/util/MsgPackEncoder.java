@@ -0,0 +1,134 @@
+package org.nanonative.devconsole.util;
+
+// MessagePack spec encoding with the smallest fitting format family for ints, strings, arrays and maps
+public class MsgPackEncoder extends BinaryEncoder {
+
+    public MsgPackEncoder(final int initialCapacity) {
+        super(initialCapacity);
+    }
+
+    @Override
+    public String mediaType() {
+        return APPLICATION_MSGPACK;
+    }
+
+    @Override
+    public BinaryEncoder mapHeader(final int size) {
+        sized(size, 0x80, 16, 0xde, 0xdf);
+        return this;
+    }
+
+    @Override
+    public BinaryEncoder arrayHeader(final int size) {
+        sized(size, 0x90, 16, 0xdc, 0xdd);
+        return this;
+    }
+
+    @Override
+    public BinaryEncoder string(final String value) {
+        if (null == value)
+            return nil();
+        final byte[] utf8 = asciiOrNull(value);
+        final int size = null == utf8 ? value.length() : utf8.length;
+        if (size < 32) {
+            put(0xa0 | size);
+        } else if (size <= 0xff) {
+            put(0xd9);
+            put(size);
+        } else if (size <= 0xffff) {
+            put(0xda);
+            putBigEndian(size, 2);
+        } else {
+            put(0xdb);
+            putBigEndian(size, 4);
+        }
+        if (null == utf8)
+            putAscii(value);
+        else
+            putRaw(utf8);
+        return this;
+    }
+
+    @Override
+    public BinaryEncoder bytes(final byte[] value) {
+        if (value.length <= 0xff) {
+            put(0xc4);
+            put(value.length);
+        } else if (value.length <= 0xffff) {
+            put(0xc5);
+            putBigEndian(value.length, 2);
+        } else {
+            put(0xc6);
+            putBigEndian(value.length, 4);
+        }
+        putRaw(value);
+        return this;
+    }
+
+    @Override
+    public BinaryEncoder longValue(final long value) {
+        if (value >= 0) {
+            if (value < 128) {
+                put((int) value);
+            } else if (value <= 0xffL) {
+                put(0xcc);
+                put((int) value);
+            } else if (value <= 0xffffL) {
+                put(0xcd);
+                putBigEndian(value, 2);
+            } else if (value <= 0xffffffffL) {
+                put(0xce);
+                putBigEndian(value, 4);
+            } else {
+                put(0xcf);
+                putBigEndian(value, 8);
+            }
+        } else if (value >= -32) {
+            put((int) value & 0xff);
+        } else if (value >= Byte.MIN_VALUE) {
+            put(0xd0);
+            put((int) value);
+        } else if (value >= Short.MIN_VALUE) {
+            put(0xd1);
+            putBigEndian(value, 2);
+        } else if (value >= Integer.MIN_VALUE) {
+            put(0xd2);
+            putBigEndian(value, 4);
+        } else {
+            put(0xd3);
+            putBigEndian(value, 8);
+        }
+        return this;
+    }
+
+    @Override
+    public BinaryEncoder doubleValue(final double value) {
+        put(0xcb);
+        putBigEndian(Double.doubleToLongBits(value), 8);
+        return this;
+    }
+
+    @Override
+    public BinaryEncoder bool(final boolean value) {
+        put(value ? 0xc3 : 0xc2);
+        return this;
+    }
+
+    @Override
+    public BinaryEncoder nil() {
+        put(0xc0);
+        return this;
+    }
+
+    private void sized(final int size, final int fixPrefix, final int fixLimit, final int prefix16, final int prefix32) {
+        if (size < fixLimit) {
+            put(fixPrefix | size);
+        } else if (size <= 0xffff) {
+            put(prefix16);
+            putBigEndian(size, 2);
+        } else {
+            put(prefix32);
+            putBigEndian(size, 4);
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package org.nanonative.devconsole.util;
+
+import berlin.yuna.typemap.model.LinkedTypeMap;
+import berlin.yuna.typemap.model.TypeList;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static berlin.yuna.typemap.logic.JsonDecoder.jsonListOf;
+import static berlin.yuna.typemap.logic.JsonDecoder.jsonMapOf;
+import static org.nanonative.devconsole.util.SystemUtil.VIRTUAL_EXECUTOR;
+
+/**
+ * Fetches {@code /system-info}, {@code /events} and {@code /logs} from peer consoles in parallel and merges them
+ * with the local node into one cluster view. The view never waits for a peer: it is built from the TTL cache while
+ * expired entries are refetched in the background, each call bounded by its own timeout. A peer without any answer yet
+ * shows up as {@code pending}, a dead one as {@code unreachable}.
+ */
+public class PeerFederation implements AutoCloseable {
+
+    public static final String LOCAL_NODE = "local";
+    public static final String PENDING = "pending";
+    // Shared instance for nodes without peers, it holds no HTTP client
+    public static final PeerFederation NONE = new PeerFederation(List.of(), 0, 0);
+
+    private final List<String> peers;
+    private final Duration timeout;
+    private final long ttlNs;
+    private final HttpClient client;
+    private final Map<String, PeerResponse> cache = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<PeerResponse>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, RateSample> rates = new ConcurrentHashMap<>();
+
+    public record PeerResponse(String body, String error, long fetchedAtNs) {
+        public boolean isOk() {
+            return null == error;
+        }
+    }
+
+    private record RateSample(long total, long atNs, double perSecond) {}
+
+    public PeerFederation(final List<String> peers, final long timeoutMs, final long ttlMs) {
+        this.peers = List.copyOf(peers);
+        this.timeout = Duration.ofMillis(timeoutMs);
+        this.ttlNs = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+        this.client = peers.isEmpty() ? null : HttpClient.newBuilder().connectTimeout(timeout).executor(VIRTUAL_EXECUTOR).build();
+    }
+
+    // Entries that are no http(s) URL with a host are handed to rejected and left out
+    public static List<String> parsePeers(final String peers, final Consumer<String> rejected) {
+        if (null == peers || peers.isBlank())
+            return List.of();
+        return Arrays.stream(peers.split(","))
+            .map(String::trim)
+            .filter(peer -> !peer.isEmpty())
+            .map(peer -> peer.endsWith("/") ? peer.substring(0, peer.length() - 1) : peer)
+            .filter(peer -> {
+                if (isValidPeer(peer))
+                    return true;
+                rejected.accept(peer);
+                return false;
+            })
+            .distinct()
+            .toList();
+    }
+
+    public static boolean isValidPeer(final String peer) {
+        try {
+            final URI uri = new URI(peer);
+            return null != uri.getHost() && ("http".equalsIgnoreCase(uri.getScheme()) || "https".equalsIgnoreCase(uri.getScheme()));
+        } catch (URISyntaxException e) {
+            return false;
+        }
+    }
+
+    public List<String> peers() {
+        return peers;
+    }
+
+    public LinkedTypeMap clusterView(final String consolePath, final LinkedTypeMap localInfo, final TypeList localEvents, final List<String> localLogs) {
+        final TypeList nodes = new TypeList();
+        final TypeList mergedEvents = new TypeList();
+        final TypeList mergedLogs = new TypeList();
+        final List<LinkedTypeMap> upInfos = new ArrayList<>();
+
+        nodes.add(node(LOCAL_NODE, "up", null, localInfo));
+        upInfos.add(localInfo);
+        tagged(LOCAL_NODE, localEvents, mergedEvents);
+        localLogs.forEach(log -> mergedLogs.add(new LinkedTypeMap().putR("node", LOCAL_NODE).putR("log", log)));
+
+        for (String peer : peers) {
+            final PeerResponse info = current(peer + consolePath + "/system-info");
+            LinkedTypeMap peerInfo = null;
+            if (null != info.body()) {
+                peerInfo = jsonMapOf(info.body());
+                upInfos.add(peerInfo);
+            }
+            nodes.add(node(peer, status(info), info.error(), peerInfo));
+            final PeerResponse peerEvents = current(peer + consolePath + "/events");
+            if (null != peerEvents.body())
+                tagged(peer, jsonListOf(peerEvents.body()), mergedEvents);
+            final PeerResponse peerLogs = current(peer + consolePath + "/logs");
+            if (null != peerLogs.body())
+                jsonListOf(peerLogs.body()).forEach(log -> mergedLogs.add(new LinkedTypeMap().putR("node", peer).putR("log", log)));
+        }
+        // Newest first across all nodes, like the local event list
+        mergedEvents.sort(Comparator.comparingLong(PeerFederation::timestampMs).reversed());
+
+        return new LinkedTypeMap()
+            .putR("aggregate", aggregate(nodes, upInfos))
+            .putR("nodes", nodes)
+            .putR("events", mergedEvents)
+            .putR("logs", mergedLogs);
+    }
+
+    // Doesn't close a shared client while requests are in flight, they finish or time out on their own
+    @Override
+    public void close() {
+        if (null != client)
+            client.shutdown();
+    }
+
+    // The freshest response available right now, an expired one is served until its refetch completes
+    protected PeerResponse current(final String url) {
+        final PeerResponse cached = cache.get(url);
+        return fetch(url).getNow(null != cached ? cached : new PeerResponse(null, PENDING, System.nanoTime()));
+    }
+
+    protected CompletableFuture<PeerResponse> fetch(final String url) {
+        final PeerResponse cached = cache.get(url);
+        if (null != cached && cached.isOk() && System.nanoTime() - cached.fetchedAtNs() < ttlNs)
+            return CompletableFuture.completedFuture(cached);
+
+        // One request per URL in flight, concurrent callers share it
+        final CompletableFuture<PeerResponse> mine = new CompletableFuture<>();
+        final CompletableFuture<PeerResponse> running = inFlight.putIfAbsent(url, mine);
+        if (null != running)
+            return running;
+        // Attached outside of the map, a request that completes right away can't update the map from within itself
+        send(url).whenComplete((resp, e) -> {
+            final PeerResponse result = null != resp ? resp : failed(url, String.valueOf(e));
+            cache.put(url, result);
+            inFlight.remove(url, mine);
+            mine.complete(result);
+        });
+        return mine;
+    }
+
+    // Never throws, a request that can't even be sent is a failed response of that peer
+    private CompletableFuture<PeerResponse> send(final String url) {
+        try {
+            return client
+                .sendAsync(HttpRequest.newBuilder(URI.create(url)).timeout(timeout).GET().build(), HttpResponse.BodyHandlers.ofString())
+                .thenApply(resp -> 200 == resp.statusCode()
+                    ? new PeerResponse(resp.body(), null, System.nanoTime())
+                    : failed(url, "HTTP " + resp.statusCode()))
+                .exceptionally(e -> failed(url, String.valueOf(null == e.getCause() ? e : e.getCause())));
+        } catch (RuntimeException e) {
+            return CompletableFuture.completedFuture(failed(url, String.valueOf(e)));
+        }
+    }
+
+    // Keeps serving the last good body (marked stale) when a peer fails
+    private PeerResponse failed(final String url, final String error) {
+        final PeerResponse previous = cache.get(url);
+        return new PeerResponse(null == previous ? null : previous.body(), error, null == previous ? System.nanoTime() : previous.fetchedAtNs());
+    }
+
+    private static String status(final PeerResponse response) {
+        if (response.isOk())
+            return "up";
+        if (null != response.body())
+            return "stale";
+        return PENDING.equals(response.error()) ? PENDING : "unreachable";
+    }
+
+    // Local events carry an Instant, peer events its JSON form - unknown formats sort last
+    private static long timestampMs(final Object event) {
+        final Object ts = event instanceof Map<?, ?> map ? map.get("eventTimestamp") : null;
+        return switch (ts) {
+            case Instant instant -> instant.toEpochMilli();
+            case Number number -> number.longValue();
+            case String text when !text.isBlank() -> {
+                try {
+                    yield Instant.parse(text).toEpochMilli();
+                } catch (DateTimeParseException e) {
+                    yield Long.MIN_VALUE;
+                }
+            }
+            case null, default -> Long.MIN_VALUE;
+        };
+    }
+
+    private LinkedTypeMap node(final String name, final String status, final String error, final LinkedTypeMap info) {
+        final LinkedTypeMap node = new LinkedTypeMap().putR("node", name).putR("status", status);
+        if (null != error)
+            node.putR("error", error);
+        if (null != info) {
+            node.putR("eventsPerSecond", eventRate(name, info.asLongOpt("totalEvents").orElse(0L)));
+            node.putR("systemInfo", info);
+        }
+        return node;
+    }
+
+    private static void tagged(final String node, final List<?> entries, final TypeList target) {
+        for (Object entry : entries) {
+            if (entry instanceof Map<?, ?> map) {
+                final LinkedTypeMap tagged = new LinkedTypeMap().putR("node", node);
+                map.forEach((k, v) -> tagged.put(String.valueOf(k), v));
+                target.add(tagged);
+            }
+        }
+    }
+
+    private double eventRate(final String node, final long total) {
+        final long now = System.nanoTime();
+        return rates.compute(node, (k, prev) -> {
+            if (null == prev || total < prev.total())
+                return new RateSample(total, now, 0.0);
+            final long dNs = now - prev.atNs();
+            // Cached peer responses repeat the same total - keep the last rate until a new sample arrives
+            if (total == prev.total() && dNs < ttlNs)
+                return prev;
+            return new RateSample(total, now, dNs <= 0 ? prev.perSecond() : Math.round((total - prev.total()) * 1e9 / dNs * 100.0) / 100.0);
+        }).perSecond();
+    }
+
+    private static LinkedTypeMap aggregate(final TypeList nodes, final List<LinkedTypeMap> infos) {
+        double cpuSum = 0, cpuMax = 0, heapSum = 0, heapMax = 0, rateSum = 0;
+        long totalEvents = 0;
+        for (LinkedTypeMap info : infos) {
+            final double cpu = info.asDoubleOpt("cpuUsage").orElse(0.0);
+            final double heap = info.asDoubleOpt("heapUsage").orElse(0.0);
+            cpuSum += cpu;
+            cpuMax = Math.max(cpuMax, cpu);
+            heapSum += heap;
+            heapMax = Math.max(heapMax, heap);
+            totalEvents += info.asLongOpt("totalEvents").orElse(0L);
+        }
+        long up = 0;
+        for (Object node : nodes) {
+            final LinkedTypeMap map = (LinkedTypeMap) node;
+            if ("up".equals(map.asString("status")))
+                up++;
+            rateSum += map.asDoubleOpt("eventsPerSecond").orElse(0.0);
+        }
+        final int n = Math.max(1, infos.size());
+        return new LinkedTypeMap()
+            .putR("nodes", nodes.size())
+            .putR("nodesUp", up)
+            .putR("cpuUsageAvg", Math.round(cpuSum / n * 100.0) / 100.0)
+            .putR("cpuUsageMax", cpuMax)
+            .putR("heapUsageAvg", heapSum / n)
+            .putR("heapUsageMax", heapMax)
+            .putR("totalEvents", totalEvents)
+            .putR("eventsPerSecond", Math.round(rateSum * 100.0) / 100.0);
+    }
+}
@@ -0,0 +1,92 @@
+package org.nanonative.devconsole.util;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Per-client token buckets, O(1) state per client, at most MAX_CLIENTS buckets - further clients share one overflow bucket
+public class RateLimiter {
+
+    public static final int MAX_CLIENTS = 1024;
+    public static final long IDLE_NS = TimeUnit.MINUTES.toNanos(1);
+
+    private final double ratePerSecond;
+    private final double burst;
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final Bucket overflow;
+    private final AtomicLong nextSweepNs;
+    private final LongAdder rejected = new LongAdder();
+
+    public RateLimiter(final double ratePerSecond, final double burst) {
+        this.ratePerSecond = ratePerSecond;
+        this.burst = Math.max(1, burst);
+        final long now = System.nanoTime();
+        this.overflow = new Bucket(this.burst, now);
+        this.nextSweepNs = new AtomicLong(now + IDLE_NS);
+    }
+
+    public boolean isEnabled() {
+        return ratePerSecond > 0;
+    }
+
+    // Returns 0 if the request may pass, otherwise the seconds the client should wait
+    public long acquire(final String client) {
+        if (!isEnabled())
+            return 0;
+        final long now = System.nanoTime();
+        final long waitSeconds = bucket(client, now).take(now);
+        if (waitSeconds > 0)
+            rejected.increment();
+        return waitSeconds;
+    }
+
+    public long rejected() {
+        return rejected.sum();
+    }
+
+    public int clients() {
+        return buckets.size();
+    }
+
+    private Bucket bucket(final String client, final long now) {
+        final Bucket known = buckets.get(client);
+        if (null != known)
+            return known;
+        if (buckets.size() >= MAX_CLIENTS) {
+            sweep(now);
+            if (buckets.size() >= MAX_CLIENTS)
+                return overflow;
+        }
+        return buckets.computeIfAbsent(client, k -> new Bucket(burst, now));
+    }
+
+    // Idle buckets are swept at most once per IDLE_NS, a map full of active clients is not scanned on every request
+    private void sweep(final long now) {
+        final long due = nextSweepNs.get();
+        if (now - due < 0 || !nextSweepNs.compareAndSet(due, now + IDLE_NS))
+            return;
+        buckets.values().removeIf(bucket -> now - bucket.lastNs > IDLE_NS);
+    }
+
+    private final class Bucket {
+        private double tokens;
+        private volatile long lastNs;
+
+        private Bucket(final double tokens, final long lastNs) {
+            this.tokens = tokens;
+            this.lastNs = lastNs;
+        }
+
+        private synchronized long take(final long now) {
+            tokens = Math.min(burst, tokens + Math.max(0, now - lastNs) / 1e9 * ratePerSecond);
+            lastNs = Math.max(lastNs, now);
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return Math.max(1, (long) Math.ceil((1 - tokens) / ratePerSecond));
+        }
+    }
+}
@@ -3,13 +3,74 @@ package org.nanonative.devconsole.util;
 import org.nanonative.nano.services.http.model.ContentType;
 import org.nanonative.nano.services.http.model.HttpObject;
 
+import java.nio.charset.StandardCharsets;
+
 public class ResponseHelper {
 
+    public static final String ACCEPT = "accept";
+    public static final String ACCEPT_ENCODING = "accept-encoding";
+    public static final String CONTENT_TYPE = "content-type";
+    public static final String CONTENT_ENCODING = "content-encoding";
+    public static final String VARY = "vary";
+    public static final String RETRY_AFTER = "retry-after";
+    public static final String ETAG = "etag";
+    public static final String IF_NONE_MATCH = "if-none-match";
+    public static final String CACHE_CONTROL = "cache-control";
+    public static final String CONTENT_DISPOSITION = "content-disposition";
+
     private ResponseHelper() {}
 
     public static HttpObject responseOk(final HttpObject payload, final String body, ContentType cntType) {
-        HttpObject resp = payload.createCorsResponse().statusCode(200).contentType(cntType).body(body);
-        return resp;
+        HttpObject resp = payload.createCorsResponse().statusCode(200).contentType(cntType);
+        if (null == body || body.length() < Compression.MIN_BYTES)
+            return resp.header(VARY, "Accept-Encoding").body(body);
+        return withBody(payload, resp, body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static HttpObject responseOk(final HttpObject payload, final byte[] body, final String mediaType) {
+        return withBody(payload, payload.createCorsResponse().statusCode(200).header(CONTENT_TYPE, mediaType), body);
+    }
+
+    // Precompressed at build time, revalidated by ETag so unchanged assets cost a 304 only
+    public static HttpObject responseAsset(final HttpObject payload, final UiAsset asset, final ContentType cntType) {
+        final HttpObject resp = payload.createCorsResponse().header(ETAG, asset.etag()).header(CACHE_CONTROL, "no-cache");
+        final String ifNoneMatch = payload.header(IF_NONE_MATCH);
+        if (null != ifNoneMatch && (ifNoneMatch.contains(asset.etag()) || "*".equals(ifNoneMatch.trim())))
+            return resp.statusCode(304);
+        resp.statusCode(200).contentType(cntType).header(VARY, "Accept-Encoding");
+        if (Compression.GZIP.equals(Compression.negotiate(payload.header(ACCEPT_ENCODING))) && asset.gzip().length < asset.raw().length)
+            return resp.header(CONTENT_ENCODING, Compression.GZIP).body(asset.gzip());
+        return resp.body(asset.raw());
+    }
+
+    // Already compressed downloads are sent as they are
+    public static HttpObject responseDownload(final HttpObject payload, final byte[] body, final String mediaType, final String fileName) {
+        return payload.createCorsResponse().statusCode(200)
+            .header(CONTENT_TYPE, mediaType)
+            .header(CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+            .header(CACHE_CONTROL, "no-store")
+            .body(body);
+    }
+
+    public static HttpObject responseTooManyRequests(final HttpObject payload, final long retryAfterSeconds) {
+        return payload.createCorsResponse().statusCode(429).header(RETRY_AFTER, String.valueOf(retryAfterSeconds)).body("Too many requests");
+    }
+
+    public static HttpObject responseGone(final HttpObject payload, final String message) {
+        return payload.createCorsResponse().statusCode(410).header(CACHE_CONTROL, "no-store").body(message);
+    }
+
+    public static HttpObject responseUnavailable(final HttpObject payload, final long retryAfterSeconds) {
+        return payload.createCorsResponse().statusCode(503).header(RETRY_AFTER, String.valueOf(retryAfterSeconds)).body("Service index is still loading");
+    }
+
+    // Vary on every negotiated response, also uncompressed ones: the same URL is compressed once its body grows past MIN_BYTES
+    private static HttpObject withBody(final HttpObject payload, final HttpObject resp, final byte[] raw) {
+        resp.header(VARY, "Accept-Encoding");
+        final String encoding = raw.length < Compression.MIN_BYTES ? null : Compression.negotiate(payload.header(ACCEPT_ENCODING));
+        if (null == encoding)
+            return resp.body(raw);
+        return resp.header(CONTENT_ENCODING, encoding).body(Compression.compress(raw, encoding));
     }
 
     public static ContentType getTypeFromFileExt(String path) {
@@ -1,3 +1,3 @@
 package org.nanonative.devconsole.util;
 
-sealed public interface RoutesMatch permits DevInfo, DevLogs, DevConfig, DevEvents, DevHtml, DevUi, DevService, NoMatch {}
+sealed public interface RoutesMatch permits DevInfo, DevLogs, DevConfig, DevEvents, DevHtml, DevUi, DevService, DevCluster, DevMetrics, DevTopology, DevSchedulers, DevTraces, DevLoadGen, DevHeapHistogram, DevHeapDump, NoMatch {}
@@ -0,0 +1,152 @@
+package org.nanonative.devconsole.util;
+
+import berlin.yuna.typemap.model.LinkedTypeMap;
+import berlin.yuna.typemap.model.TypeList;
+
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically samples Nano schedulers. Pending, active and completed counts come straight from the
+ * {@link ThreadPoolExecutor}. Lag is read from due tasks still waiting in the delay queue. Each overdue run is tracked
+ * across samples and recorded once with the largest lag seen, when it leaves the queue or is no longer overdue, so a
+ * long stall is not recorded with the lag of its first sighting. Execution time is estimated
+ * per sample interval from the average active count and the completion rate (Little's law). All state per scheduler is
+ * fixed size, schedulers that disappear are dropped on the next sample.
+ */
+public class SchedulerSampler {
+
+    public static final long MIN_INTERVAL_NS = TimeUnit.SECONDS.toNanos(1);
+    public static final int MAX_QUEUE_SCAN = 64;
+    // Periodic tasks are queued again as the same object, a different trigger time is a new run
+    public static final long SAME_RUN_NS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final Map<Object, Stats> stats = new IdentityHashMap<>();
+    private long lastSampleNs;
+
+    private record Run(long triggerNs, long maxLagNs) {}
+
+    private static final class Stats {
+        private final String name;
+        private final LatencyHistogram lag = new LatencyHistogram();
+        private final LatencyHistogram execution = new LatencyHistogram();
+        // Overdue runs seen in the last sample, at most MAX_QUEUE_SCAN entries
+        private Map<Object, Run> overdueRuns = new IdentityHashMap<>();
+        private long lastCompleted = -1;
+        private int lastActive;
+        private long lastNs;
+        private int pending;
+        private int active;
+        private long completed;
+        private int overdue;
+        private long maxLagNs;
+
+        private Stats(final String name) {
+            this.name = name;
+        }
+    }
+
+    // Throttled so a fast heartbeat doesn't turn into constant queue scans
+    public synchronized void sampleIfDue(final Collection<?> schedulers) {
+        final long now = System.nanoTime();
+        if (lastSampleNs != 0 && now - lastSampleNs < MIN_INTERVAL_NS)
+            return;
+        sample(schedulers, now);
+    }
+
+    public synchronized void sample(final Collection<?> schedulers, final long now) {
+        lastSampleNs = now;
+        final Map<Object, Stats> seen = new IdentityHashMap<>();
+        for (Object scheduler : schedulers.toArray()) {
+            final Stats s = stats.computeIfAbsent(scheduler, k -> new Stats(k.getClass().getSimpleName() + "@" + Integer.toHexString(System.identityHashCode(k))));
+            seen.put(scheduler, s);
+            if (scheduler instanceof ThreadPoolExecutor executor)
+                sample(executor, s, now);
+        }
+        stats.keySet().retainAll(seen.keySet());
+    }
+
+    private static void sample(final ThreadPoolExecutor executor, final Stats s, final long now) {
+        final BlockingQueue<Runnable> queue = executor.getQueue();
+        s.pending = queue.size();
+        s.active = executor.getActiveCount();
+        s.completed = executor.getCompletedTaskCount();
+
+        int overdue = 0;
+        long maxLag = 0;
+        int scanned = 0;
+        final Map<Object, Run> runs = new IdentityHashMap<>();
+        for (Runnable task : queue) {
+            if (scanned++ >= MAX_QUEUE_SCAN)
+                break;
+            if (task instanceof Delayed delayed) {
+                final long delayNs = delayed.getDelay(TimeUnit.NANOSECONDS);
+                if (delayNs <= 0) {
+                    overdue++;
+                    maxLag = Math.max(maxLag, -delayNs);
+                    final long triggerNs = System.nanoTime() + delayNs;
+                    final Run seen = s.overdueRuns.remove(task);
+                    if (null == seen || Math.abs(triggerNs - seen.triggerNs()) > SAME_RUN_NS) {
+                        // A periodic task queued again - its previous run has finished
+                        if (null != seen)
+                            s.lag.record(seen.maxLagNs());
+                        runs.put(task, new Run(triggerNs, -delayNs));
+                    } else {
+                        runs.put(task, new Run(seen.triggerNs(), Math.max(seen.maxLagNs(), -delayNs)));
+                    }
+                }
+            }
+        }
+        // Runs that left the queue or are no longer overdue, with the largest lag they reached
+        for (Run finished : s.overdueRuns.values())
+            s.lag.record(finished.maxLagNs());
+        s.overdue = overdue;
+        s.maxLagNs = maxLag;
+        s.overdueRuns = runs;
+
+        if (s.lastCompleted >= 0 && now > s.lastNs) {
+            final long done = s.completed - s.lastCompleted;
+            if (done > 0) {
+                final double avgActive = (s.active + s.lastActive) / 2.0;
+                final double intervalNs = now - s.lastNs;
+                s.execution.record((long) (Math.max(avgActive, 0) * intervalNs / done));
+            }
+        }
+        s.lastCompleted = s.completed;
+        s.lastActive = s.active;
+        s.lastNs = now;
+    }
+
+    public synchronized TypeList snapshot() {
+        final TypeList result = new TypeList();
+        stats.forEach((scheduler, s) -> {
+            final LinkedTypeMap entry = new LinkedTypeMap().putR("name", s.name);
+            if (scheduler instanceof ThreadPoolExecutor executor) {
+                entry.putR("poolSize", executor.getPoolSize())
+                    .putR("pending", s.pending)
+                    .putR("active", s.active)
+                    .putR("completed", s.completed)
+                    .putR("overdue", s.overdue)
+                    .putR("currentLagMs", s.maxLagNs / 1_000_000.0)
+                    .putR("lag", s.lag.snapshot())
+                    .putR("executionEstimate", s.execution.snapshot())
+                    .putR("shutdown", executor.isShutdown());
+            }
+            result.add(entry);
+        });
+        return result;
+    }
+
+    public synchronized long totalPending() {
+        return stats.values().stream().mapToLong(s -> s.pending).sum();
+    }
+
+    public synchronized long totalOverdue() {
+        return stats.values().stream().mapToLong(s -> s.overdue).sum();
+    }
+}
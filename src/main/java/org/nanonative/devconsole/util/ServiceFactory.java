@@ -5,14 +5,25 @@ import org.nanonative.nano.core.model.Service;
 import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
 import java.lang.invoke.MethodType;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 import java.util.function.Supplier;
 
 public class ServiceFactory {
-    private final Map<String, ClassInfo> registry = new ConcurrentHashMap<>();
+    public static final int SLOWEST_LIMIT = 10;
+    // simple name -> FQCN, nothing is loaded until first use or warm-up
+    private final Map<String, String> catalog = new ConcurrentHashMap<>();
+    // Resolved entries are memoized once - computeIfAbsent guarantees a single resolution per name
+    private final Map<String, Optional<ClassInfo>> registry = new ConcurrentHashMap<>();
+    private final Map<String, String> failures = new ConcurrentHashMap<>();
+    private final Map<String, Long> loadTimesNs = new ConcurrentHashMap<>();
     private final MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+    private final ClassLoader classLoader;
 
     public ServiceFactory(List<String> fqcnList) {
         this(fqcnList, Thread.currentThread().getContextClassLoader());
@@ -23,43 +34,79 @@ public class ServiceFactory {
     }
 
     public ClassInfo getClassInfo(String simpleName) {
-        return registry.get(simpleName);
+        if (!catalog.containsKey(simpleName))
+            return null;
+        return registry.computeIfAbsent(simpleName, this::resolve).orElse(null);
+    }
+
+    // Resolves all catalog entries in parallel, a broken entry only affects itself
+    public CompletableFuture<Void> warmUp(final Executor executor) {
+        return CompletableFuture.allOf(catalog.keySet().stream()
+            .map(name -> CompletableFuture.runAsync(() -> getClassInfo(name), executor))
+            .toArray(CompletableFuture[]::new));
+    }
+
+    public Map<String, String> failures() {
+        return Map.copyOf(failures);
+    }
+
+    public Map<String, Object> stats() {
+        final Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("catalogued", catalog.size());
+        stats.put("resolved", registry.values().stream().filter(Optional::isPresent).count());
+        stats.put("failed", failures.size());
+        stats.put("loadTimeMs", loadTimesNs.values().stream().mapToLong(Long::longValue).sum() / 1_000_000.0);
+        // Slowest resolutions first, these are the classes worth looking at when startup gets slow
+        final Map<String, Double> slowest = new LinkedHashMap<>();
+        loadTimesNs.entrySet().stream()
+            .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+            .limit(SLOWEST_LIMIT)
+            .forEach(entry -> slowest.put(entry.getKey(), entry.getValue() / 1_000_000.0));
+        stats.put("slowestMs", slowest);
+        return stats;
     }
 
     private ServiceFactory(List<String> fqcnList, ClassLoader cl) {
+        this.classLoader = cl;
+        for (String fqcn : fqcnList)
+            catalog.putIfAbsent(getSimpleName(fqcn), fqcn);
+    }
+
+    private Optional<ClassInfo> resolve(final String simpleName) {
+        final String fqcn = catalog.get(simpleName);
+        final long startNs = System.nanoTime();
         try {
-            for (String fqcn : fqcnList) {
-                Class<? extends Service> clazz = cl.loadClass(fqcn).asSubclass(Service.class);
-                registry.putIfAbsent(getSimpleName(fqcn), new ClassInfo(clazz, fqcn, lazyInitializer(clazz)));
-            }
-        } catch (ClassNotFoundException cfe) {
-            throw new RuntimeException("services.properties has FQDNs which are no longer present: " + cfe);
+            final Class<? extends Service> clazz = classLoader.loadClass(fqcn).asSubclass(Service.class);
+            return Optional.of(new ClassInfo(clazz, fqcn, lazyInitializer(clazz)));
+        } catch (ClassNotFoundException | ClassCastException | LinkageError e) {
+            failures.put(simpleName, "services.properties has FQCN which is no longer present or not a Service: " + fqcn + " [" + e + "]");
+            return Optional.empty();
+        } finally {
+            loadTimesNs.put(simpleName, System.nanoTime() - startNs);
         }
     }
 
     private Object newInstance(String name) {
-        Supplier<?> sup = registry.containsKey(name) ? registry.get(name).initialize() : null;
-        if (null == sup)
-            throw new RuntimeException("Unknown service: " + name);
-        return sup.get();
+        final ClassInfo info = getClassInfo(name);
+        if (null == info)
+            throw new RuntimeException("Unknown service: " + name + Optional.ofNullable(failures.get(name)).map(reason -> " - " + reason).orElse(""));
+        return info.initialize().get();
     }
 
     protected Supplier<?> lazyInitializer(Class<? extends Service> clazz) {
-        return new Supplier<>() {
-            volatile MethodHandle constructor;
-
-            @Override
-            public Object get() {
-                try {
-                    if (null == constructor) {
-                        synchronized (this) {
-                            constructor = lookup.findConstructor(clazz, MethodType.methodType(void.class));
-                        }
-                    }
-                    return constructor.invoke();
-                } catch (Throwable t) {
-                    throw new RuntimeException("Failed to instantiate: " + clazz.getSimpleName());
-                }
+        final MethodHandle constructor;
+        try {
+            constructor = lookup.findConstructor(clazz, MethodType.methodType(void.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            return () -> {
+                throw new RuntimeException("Failed to instantiate: " + clazz.getSimpleName() + " - no public no-arg constructor");
+            };
+        }
+        return () -> {
+            try {
+                return constructor.invoke();
+            } catch (Throwable t) {
+                throw new RuntimeException("Failed to instantiate: " + clazz.getSimpleName());
             }
         };
     }
@@ -0,0 +1,95 @@
+package org.nanonative.devconsole.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+// Concurrent identical requests share one computation, results may be reused for a short TTL
+public class SingleFlight {
+
+    // Cached results are bounded, once full and nothing expired new results are only shared, not cached
+    public static final int MAX_CACHED = 64;
+
+    private final Map<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Cached> cache = new ConcurrentHashMap<>();
+    private final LongAdder computed = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder cached = new LongAdder();
+
+    private record Cached(Object value, long expiresAtNs) {
+
+        private boolean isExpired(final long now) {
+            return now - expiresAtNs >= 0;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(final String key, final long ttlMs, final Supplier<T> compute) {
+        if (ttlMs > 0) {
+            final Cached hit = cache.get(key);
+            if (null != hit) {
+                if (!hit.isExpired(System.nanoTime())) {
+                    cached.increment();
+                    return (T) hit.value();
+                }
+                cache.remove(key, hit);
+            }
+        }
+
+        final CompletableFuture<Object> mine = new CompletableFuture<>();
+        final CompletableFuture<Object> running = inFlight.putIfAbsent(key, mine);
+        if (null != running) {
+            coalesced.increment();
+            try {
+                return (T) running.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException re ? re : e;
+            }
+        }
+
+        try {
+            final T value = compute.get();
+            computed.increment();
+            if (ttlMs > 0)
+                cache(key, value, ttlMs);
+            mine.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    public void invalidate() {
+        cache.clear();
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    public Map<String, Object> stats() {
+        final Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("computed", computed.sum());
+        stats.put("coalesced", coalesced.sum());
+        stats.put("cached", cached.sum());
+        return stats;
+    }
+
+    private void cache(final String key, final Object value, final long ttlMs) {
+        final long now = System.nanoTime();
+        if (cache.size() >= MAX_CACHED && !cache.containsKey(key)) {
+            cache.values().removeIf(entry -> entry.isExpired(now));
+            if (cache.size() >= MAX_CACHED)
+                return;
+        }
+        cache.put(key, new Cached(value, now + TimeUnit.MILLISECONDS.toNanos(ttlMs)));
+    }
+}
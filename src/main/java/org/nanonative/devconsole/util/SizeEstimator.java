@@ -0,0 +1,175 @@
+package org.nanonative.devconsole.util;
+
+import java.lang.ref.Reference;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+// Cheap heap size estimates for retained entries - no toString, bounded work per call
+public class SizeEstimator {
+
+    public static final long OBJECT_OVERHEAD = 16;
+    public static final long REFERENCE_SIZE = 8;
+    public static final long STRING_OVERHEAD = 40;
+    public static final long EVENT_OVERHEAD = 160;
+    public static final int MAX_DEPTH = 3;
+    public static final int MAX_SAMPLES = 16;
+    // Objects visited per estimate, bounds the walk through POJO graphs
+    public static final int MAX_NODES = 256;
+
+    // Shallow size and the reference fields worth following, computed once per class
+    private static final ClassValue<Layout> LAYOUTS = new ClassValue<>() {
+        @Override
+        protected Layout computeValue(final Class<?> type) {
+            return Layout.of(type);
+        }
+    };
+
+    private record Layout(long shallow, Field[] references) {
+
+        private static Layout of(final Class<?> type) {
+            long shallow = OBJECT_OVERHEAD;
+            final List<Field> references = new ArrayList<>();
+            for (Class<?> c = type; null != c && c != Object.class; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    if (Modifier.isStatic(field.getModifiers()))
+                        continue;
+                    shallow += primitiveSize(field.getType());
+                    // JDK internals are not open for reflection, they count with their shallow size only
+                    if (!field.getType().isPrimitive() && field.trySetAccessible())
+                        references.add(field);
+                }
+            }
+            return new Layout(shallow, references.toArray(Field[]::new));
+        }
+    }
+
+    // Tracks the objects of one estimate, shared instances and cycles are counted once
+    private static final class Walk {
+        private Map<Object, Boolean> visited;
+
+        private boolean enter(final Object value) {
+            if (null == visited)
+                visited = new IdentityHashMap<>();
+            return visited.size() < MAX_NODES && null == visited.put(value, Boolean.TRUE);
+        }
+    }
+
+    private SizeEstimator() {}
+
+    public static long estimate(final Object value) {
+        return estimate(value, 0, new Walk());
+    }
+
+    public static long estimateString(final String value) {
+        // Compact strings - latin1 dominates in logs, so one byte per char is close enough
+        return null == value ? 0 : STRING_OVERHEAD + value.length();
+    }
+
+    private static long estimate(final Object value, final int depth, final Walk walk) {
+        return switch (value) {
+            case null -> 0;
+            case String str -> estimateString(str);
+            case CharSequence seq -> STRING_OVERHEAD + 2L * seq.length();
+            case byte[] bytes -> OBJECT_OVERHEAD + bytes.length;
+            case char[] chars -> OBJECT_OVERHEAD + 2L * chars.length;
+            case Number __ -> 24;
+            case Boolean __ -> OBJECT_OVERHEAD;
+            case Enum<?> __ -> REFERENCE_SIZE;
+            case Class<?> __ -> REFERENCE_SIZE;
+            case Thread __ -> REFERENCE_SIZE;
+            case ClassLoader __ -> REFERENCE_SIZE;
+            case Reference<?> __ -> OBJECT_OVERHEAD + 3 * REFERENCE_SIZE;
+            case Map<?, ?> map -> OBJECT_OVERHEAD + 48 + map.size() * 32L + sampled(map.entrySet(), map.size(), depth, walk);
+            case Collection<?> col -> OBJECT_OVERHEAD + 24 + col.size() * REFERENCE_SIZE + sampled(col, col.size(), depth, walk);
+            default -> value.getClass().isArray() ? array(value, depth, walk) : fields(value, depth, walk);
+        };
+    }
+
+    // Follows the reference fields of POJOs and records, objects beyond the node budget are no longer counted
+    private static long fields(final Object value, final int depth, final Walk walk) {
+        if (!walk.enter(value))
+            return REFERENCE_SIZE;
+        final Layout layout = LAYOUTS.get(value.getClass());
+        long size = layout.shallow();
+        for (Field field : layout.references()) {
+            final Object child;
+            try {
+                child = field.get(value);
+            } catch (IllegalAccessException | RuntimeException e) {
+                continue;
+            }
+            size += estimate(child, depth, walk);
+        }
+        return size;
+    }
+
+    private static long array(final Object array, final int depth, final Walk walk) {
+        final int length = Array.getLength(array);
+        final Class<?> component = array.getClass().getComponentType();
+        if (component.isPrimitive())
+            return OBJECT_OVERHEAD + length * primitiveSize(component);
+        if (!walk.enter(array))
+            return REFERENCE_SIZE;
+        return OBJECT_OVERHEAD + length * REFERENCE_SIZE + sampled(new ArrayIterable(array, length), length, depth, walk);
+    }
+
+    // Sizes the first few elements and extrapolates to the whole container
+    private static long sampled(final Iterable<?> values, final int size, final int depth, final Walk walk) {
+        if (depth >= MAX_DEPTH || size == 0)
+            return size * 64L;
+        long sum = 0;
+        int n = 0;
+        try {
+            final Iterator<?> it = values.iterator();
+            while (n < MAX_SAMPLES && it.hasNext()) {
+                final Object next = it.next();
+                sum += next instanceof Map.Entry<?, ?> entry
+                    ? estimate(entry.getKey(), depth + 1, walk) + estimate(entry.getValue(), depth + 1, walk)
+                    : estimate(next, depth + 1, walk);
+                n++;
+            }
+        } catch (ConcurrentModificationException ignored) {
+            // Payload mutated by its owner while sampling - extrapolate from what we have
+        }
+        return n == 0 ? size * 64L : sum * size / n;
+    }
+
+    private static long primitiveSize(final Class<?> type) {
+        if (type == long.class || type == double.class)
+            return 8;
+        if (type == int.class || type == float.class)
+            return 4;
+        if (type == short.class || type == char.class)
+            return 2;
+        if (type == byte.class || type == boolean.class)
+            return 1;
+        return REFERENCE_SIZE;
+    }
+
+    private record ArrayIterable(Object array, int length) implements Iterable<Object> {
+        @Override
+        public Iterator<Object> iterator() {
+            return new Iterator<>() {
+                private int index;
+
+                @Override
+                public boolean hasNext() {
+                    return index < length;
+                }
+
+                @Override
+                public Object next() {
+                    return Array.get(array, index++);
+                }
+            };
+        }
+    }
+}
@@ -5,15 +5,19 @@ import org.nanonative.nano.services.http.HttpServer;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.net.InetAddress;
-import java.time.Duration;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicReference;
 
 public class SystemUtil {
 
-    private static final AtomicLong LAST_WALL_NS = new AtomicLong(0L);
-    private static final AtomicLong LAST_PROC_NS = new AtomicLong(0L);
+    // Shared by the console views, alert rules sample with their own instance
+    private static final CpuSampler CPU = new CpuSampler();
     private static final AtomicReference<Double> LAST_PCT = new AtomicReference<>(0.0);
+    private static final ThreadFactory VIRTUAL_THREADS = Thread.ofVirtual().name("dev-console-", 0).factory();
+
+    // Fire-and-forget executor for background work that must never hold up the application
+    public static final Executor VIRTUAL_EXECUTOR = task -> VIRTUAL_THREADS.newThread(task).start();
 
     private SystemUtil() {}
 
@@ -35,26 +39,15 @@ public class SystemUtil {
     }
 
     public static Double getCpuUsagePercent() {
-        Duration cpuDur = ProcessHandle.current().info().totalCpuDuration().orElse(null);
-        if (null == cpuDur)
+        final double pct = CPU.samplePercent();
+        if (Double.isNaN(pct))
             return LAST_PCT.get();
 
-        long nowWall = System.nanoTime();
-        long nowProc = cpuDur.toNanos();
-
-        long prevWall = LAST_WALL_NS.getAndSet(nowWall);
-        long prevProc = LAST_PROC_NS.getAndSet(nowProc);
-
-        long dWall = nowWall - prevWall;
-        long dProc = nowProc - prevProc;
-
-        if (dWall <= 0 || dProc < 0)
-            return LAST_PCT.get();
-
-        int cores = Runtime.getRuntime().availableProcessors();
-        double pct = (((double) dProc / (double) dWall) / cores) * 100.0;
-
         LAST_PCT.getAndSet(BigDecimal.valueOf(pct).setScale(2, RoundingMode.HALF_UP).doubleValue());
         return LAST_PCT.get();
     }
+
+    public static long elapsedMs(final long startNs) {
+        return (System.nanoTime() - startNs) / 1_000_000L;
+    }
 }
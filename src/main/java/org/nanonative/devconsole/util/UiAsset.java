@@ -0,0 +1,21 @@
+package org.nanonative.devconsole.util;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+// UI file embedded at build time by src/build/UiAssetsGenerator.java - minified bytes, gzip bytes and a strong ETag
+public record UiAsset(String name, String etag, byte[] raw, byte[] gzip) {
+
+    public String text() {
+        return new String(raw, StandardCharsets.UTF_8);
+    }
+
+    static byte[] bytes(final String[] chunks) {
+        if (chunks.length == 1)
+            return chunks[0].getBytes(StandardCharsets.ISO_8859_1);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (String chunk : chunks)
+            out.writeBytes(chunk.getBytes(StandardCharsets.ISO_8859_1));
+        return out.toByteArray();
+    }
+}
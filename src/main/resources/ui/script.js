@@ -44,47 +44,182 @@ function renderSystemKV(target, obj){
   target.replaceChildren(wrap);
 }
 
-// Render arrays/objects as a list of rows (one record per line) inside target
-function renderList(target, val){
+// Windowed list for events/logs: all rows are kept as data, DOM exists only for the visible slice plus overscan.
+// Rows have a fixed height so positions are computed instead of measured. Newest rows are shown on top.
+const ROW_HEIGHT = 22;
+const OVERSCAN = 10;
+const lists = {};
+
+class VirtualList {
+  constructor(target, format){
+    this.target = target;
+    this.format = format;
+    this.rows = [];          // oldest first: {id, text}
+    this.index = new Map();  // id -> row
+    this.cursor = 0;         // last id/version seen, sent back as ?since=
+    this.frame = 0;
+    this.spacer = document.createElement('div'); this.spacer.className = 'nano-spacer';
+    this.list = document.createElement('div'); this.list.className = 'nano-list';
+    this.spacer.appendChild(this.list);
+    target.classList.add('virtual');
+    target.replaceChildren(this.spacer);
+    target.addEventListener('scroll', () => this.schedule(), { passive: true });
+  }
+
+  // Merge an incremental response: upsert entries by id, drop rows older than firstId. Unchanged data renders nothing.
+  apply(data, cursor){
+    let changed = !!data.reset;
+    if (data.reset) { this.rows = []; this.index.clear(); }
+    const added = [];
+    for (const entry of (data.entries || [])) {
+      const text = this.format(entry);
+      const row = this.index.get(entry.id);
+      if (!row) { added.push({ id: entry.id, text }); }
+      else if (row.text !== text) { row.text = text; changed = true; }
+    }
+    if (added.length) {
+      // Entries arrive newest first
+      const newestId = this.rows.length ? this.rows[this.rows.length - 1].id : -Infinity;
+      for (let i = added.length - 1; i >= 0; i--) { this.rows.push(added[i]); this.index.set(added[i].id, added[i]); }
+      if (added[added.length - 1].id < newestId) this.rows.sort((a, b) => a.id - b.id);
+      changed = true;
+    }
+    let evicted = 0;
+    while (evicted < this.rows.length && this.rows[evicted].id < data.firstId) { this.index.delete(this.rows[evicted].id); evicted++; }
+    if (evicted) { this.rows.splice(0, evicted); changed = true; }
+    this.cursor = cursor ?? this.cursor;
+    if (!changed) return;
+    this.spacer.style.height = (this.rows.length * ROW_HEIGHT) + 'px';
+    // Keep the rows a scrolled-down reader is looking at in place while new ones arrive on top
+    if (added.length && !data.reset && this.target.scrollTop > 0) this.target.scrollTop += added.length * ROW_HEIGHT;
+    this.schedule();
+  }
+
+  schedule(){
+    if (!this.frame) this.frame = requestAnimationFrame(() => this.render());
+  }
+
+  render(){
+    this.frame = 0;
+    const total = this.rows.length;
+    const top = this.target.scrollTop;
+    const height = this.target.clientHeight || (ROW_HEIGHT * 20);
+    const first = Math.max(0, Math.floor(top / ROW_HEIGHT) - OVERSCAN);
+    const last = Math.min(total, Math.ceil((top + height) / ROW_HEIGHT) + OVERSCAN);
+    this.list.style.transform = `translateY(${first * ROW_HEIGHT}px)`;
+    const nodes = this.list.children;
+    for (let i = first; i < last; i++) {
+      const row = this.rows[total - 1 - i];
+      let node = nodes[i - first];
+      if (!node) { node = document.createElement('div'); node.className = 'nano-row'; this.list.appendChild(node); }
+      if (node.textContent !== row.text) { node.textContent = row.text; node.title = row.text; }
+    }
+    while (nodes.length > Math.max(0, last - first)) this.list.lastChild.remove();
+  }
+
+  // Full text of all retained rows, newest first - the DOM only holds the visible slice
+  text(){
+    const lines = new Array(this.rows.length);
+    for (let i = 0; i < this.rows.length; i++) lines[i] = this.rows[this.rows.length - 1 - i].text;
+    return lines.join('\n');
+  }
+}
+
+function virtualList(id, format){
+  const target = document.getElementById(id);
+  if (!target) return null;
+  return lists[id] ??= new VirtualList(target, format);
+}
+
+// Render per-logger rates (busiest first) as tags above the logs
+function renderLoggerRates(target, rates){
   if(!target) return;
-  const list = document.createElement('div');
-  list.className = 'nano-list';
-  if(Array.isArray(val)){
-    val.forEach(item=>{
-      const row = document.createElement('div');
-      row.className = 'nano-row';
-      row.textContent = (typeof item==='string') ? item : JSON.stringify(item);
-      list.appendChild(row);
-    });
-  } else if (val && typeof val==='object'){
-    Object.keys(val).forEach(k=>{
-      const row = document.createElement('div');
-      row.className='nano-row';
-      const v = val[k];
-      row.textContent = k + ': ' + (typeof v==='string' ? v : JSON.stringify(v));
-      list.appendChild(row);
-    });
-  } else {
-    const row = document.createElement('div');
-    row.className='nano-row';
-    row.textContent = String(val ?? '');
-    list.appendChild(row);
+  const wrap = document.createElement('div');
+  wrap.className = 'arr';
+  Object.keys(rates || {}).forEach(name=>{
+    const r = rates[name] || {};
+    const tag = document.createElement('span');
+    tag.className = 'tag';
+    tag.title = `${r.total} total, ${r.collapsed} collapsed`;
+    tag.textContent = `${name.substring(name.lastIndexOf('.') + 1)}: ${r.perSecond}/s`;
+    wrap.appendChild(tag);
+  });
+  target.replaceChildren(wrap);
+}
+
+// Render firing alert rules as a banner, the list stays empty while nothing fires
+function renderAlerts(target, alerts){
+  if(!target) return;
+  const items = (alerts?.firing || []).map(alert=>{
+    const tag = document.createElement('span');
+    tag.className = 'alert';
+    tag.title = `firing since ${new Date(alert.sinceMs).toLocaleTimeString()}`;
+    tag.textContent = `🚨 ${alert.rule} (${alert.value})`;
+    return tag;
+  });
+  target.replaceChildren(...items);
+}
+
+// Fetch recent traces and render them as waterfalls (only while the Traces tab is open)
+async function loadTraces(){
+  try {
+    renderTraces(document.getElementById('tracesData'), await fetchJson('/dev-console/traces'));
+  } catch (e) {
+    console.error("Error loading traces:", e);
   }
-  target.replaceChildren(list);
+}
+
+// One waterfall per trace: spans indented by depth, bars placed by offset and duration relative to the trace
+function renderTraces(target, data){
+  if(!target) return;
+  const wrap = document.createElement('div');
+  if (!data || !data.enabled) {
+    wrap.textContent = 'Tracing is off - enable it with dev_console_tracing or PATCH /dev-console/traces {"enabled": true}';
+  }
+  (data?.traces || []).forEach(trace=>{
+    const total = Math.max(trace.durationMs, 0.001);
+    const block = document.createElement('details');
+    block.className = 'trace';
+    const summary = document.createElement('summary');
+    summary.textContent = `${trace.root} · ${trace.durationMs} ms · ${trace.spanCount} spans` + (trace.dropped ? ` (+${trace.dropped} dropped)` : '');
+    block.appendChild(summary);
+    (trace.spans || []).forEach(span=>{
+      const row = document.createElement('div'); row.className = 'span-row';
+      const label = document.createElement('div'); label.className = 'span-label';
+      label.style.paddingLeft = (span.depth * 12) + 'px';
+      label.textContent = span.channel;
+      const lane = document.createElement('div'); lane.className = 'span-lane';
+      const bar = document.createElement('div'); bar.className = 'span-bar' + (span.isAck ? ' ack' : '');
+      bar.style.left = (span.offsetMs / total * 100) + '%';
+      bar.style.width = Math.max(span.durationMs / total * 100, 0.5) + '%';
+      bar.title = `${span.durationMs} ms (listeners ${span.listenerMs} ms)`;
+      lane.appendChild(bar);
+      row.appendChild(label); row.appendChild(lane);
+      block.appendChild(row);
+    });
+    wrap.appendChild(block);
+  });
+  target.replaceChildren(wrap);
 }
 
 // Load all datasets from BE, render System/Events/Logs, and update charts
 async function loadData() {
     try {
+        const events = virtualList("eventsData", entry => JSON.stringify(entry));
+        const logs = virtualList("logsData", entry => entry.text);
         const [systemInfo, eventData, logData] = await Promise.all([
             fetchJson('/dev-console/system-info'),
-            fetchJson('/dev-console/events'),
-            fetchJson('/dev-console/logs')
+            fetchJson(`/dev-console/events?since=${events?.cursor ?? 0}`),
+            fetchJson(`/dev-console/logs?since=${logs?.cursor ?? 0}`)
         ]);
 
         renderSystemKV(document.getElementById("system"), systemInfo);
-        renderList(document.getElementById("eventsData"), eventData);
-        renderList(document.getElementById("logsData"), logData);
+        events?.apply(eventData, eventData.version);
+        logs?.apply(logData, logData.version);
+        renderLoggerRates(document.getElementById("loggerRates"), systemInfo.logRates);
+        renderAlerts(document.getElementById("alerts"), systemInfo.alerts);
+
+        if (document.getElementById('traces')?.classList.contains('active')) { loadTraces(); }
 
         // Update charts with current system info
         updateChartsWithSystemInfo(systemInfo);
@@ -133,6 +268,10 @@ function openTab(tabId) {
 
     // Load config on demand (no polling)
     if (tabId === 'config') { loadConfig(); }
+    if (tabId === 'traces') { loadTraces(); }
+    // Hidden lists have no height, render the window now that it is measurable
+    if (tabId === 'events') { lists.eventsData?.schedule(); }
+    if (tabId === 'logs') { lists.logsData?.schedule(); }
 }
 
 // Fetch current config once on opening the Config tab and populate the form
@@ -146,16 +285,19 @@ async function loadConfig(){
     const maxEventsEl = document.getElementById('cfgMaxEvents');
     const maxLogsEl   = document.getElementById('cfgMaxLogs');
     const baseUrlEl   = document.getElementById('cfgBaseUrl');
+    const alertsEl    = document.getElementById('cfgAlerts');
 
     maxEventsEl.value = (cfg?.maxEvents ?? '');
     maxLogsEl.value   = (cfg?.maxLogs   ?? '');
     baseUrlEl.value   = (cfg?.baseUrl   ?? '');
+    if (alertsEl) alertsEl.value = alertLines(cfg?.alerts);
 
     // Save original for diffing (store as strings for consistent comparisons)
     form._originalConfig = {
       maxEvents: String(cfg?.maxEvents ?? ''),
       maxLogs:   String(cfg?.maxLogs   ?? ''),
-      baseUrl:   String(cfg?.baseUrl   ?? '')
+      baseUrl:   String(cfg?.baseUrl   ?? ''),
+      alerts:    alertLines(cfg?.alerts)
     };
 
     // Recompute diff to set button state
@@ -180,6 +322,9 @@ function clearFieldError(inputEl){
   const em = field.querySelector('.error-msg'); if (em) em.remove();
 }
 
+// Alert rules are stored ';' separated, edited one per line
+const alertLines = s => String(s ?? '').split(/[;\n]/).map(r => r.trim()).filter(Boolean).join('\n');
+
 // >0 integers only, max 9999
 const isPosIntStr = s => /^[1-9]\d{0,3}$/.test(String(s).trim()); // 1..9999
 
@@ -193,7 +338,8 @@ function computeConfigDiff(){
   const draft = {
     maxEvents: (document.getElementById('cfgMaxEvents')?.value ?? '').trim(),
     maxLogs:   (document.getElementById('cfgMaxLogs')?.value ?? '').trim(),
-    baseUrl:   (document.getElementById('cfgBaseUrl')?.value ?? '').trim()
+    baseUrl:   (document.getElementById('cfgBaseUrl')?.value ?? '').trim(),
+    alerts:    alertLines(document.getElementById('cfgAlerts')?.value)
   };
 
   // Clear previous errors
@@ -213,6 +359,7 @@ function computeConfigDiff(){
   if (draft.maxEvents !== (original.maxEvents ?? '')) changed.maxEvents = parseInt(draft.maxEvents, 10);
   if (draft.maxLogs   !== (original.maxLogs   ?? '')) changed.maxLogs   = parseInt(draft.maxLogs, 10);
   if (draft.baseUrl   !== (original.baseUrl   ?? '')) changed.baseUrl   = draft.baseUrl;
+  if (draft.alerts    !== (original.alerts    ?? '')) changed.alerts    = draft.alerts.split('\n').join('; ');
 
   const btn = document.getElementById('configUpdateBtn');
   if (btn) btn.disabled = (Object.keys(changed).length === 0) || !valid;
@@ -262,12 +409,14 @@ async function submitConfigUpdate(e){
     const current = {
       maxEvents: document.getElementById('cfgMaxEvents')?.value ?? '',
       maxLogs:   document.getElementById('cfgMaxLogs')?.value ?? '',
-      baseUrl:   document.getElementById('cfgBaseUrl')?.value ?? ''
+      baseUrl:   document.getElementById('cfgBaseUrl')?.value ?? '',
+      alerts:    alertLines(document.getElementById('cfgAlerts')?.value)
     };
     form._originalConfig = {
       maxEvents: String(current.maxEvents),
       maxLogs:   String(current.maxLogs),
-      baseUrl:   String(current.baseUrl)
+      baseUrl:   String(current.baseUrl),
+      alerts:    current.alerts
     };
     computeConfigDiff();
     showToast('success', 'Updated successfully');
@@ -337,7 +486,7 @@ document.addEventListener("DOMContentLoaded", () => {
     // Config form wiring (if present)
     const form = document.getElementById('configForm');
     const btnUpdate = document.getElementById('configUpdateBtn');
-    const inputs = [document.getElementById('cfgMaxEvents'), document.getElementById('cfgMaxLogs'), document.getElementById('cfgBaseUrl')].filter(Boolean);
+    const inputs = [document.getElementById('cfgMaxEvents'), document.getElementById('cfgMaxLogs'), document.getElementById('cfgBaseUrl'), document.getElementById('cfgAlerts')].filter(Boolean);
     inputs.forEach(inp => {
       inp.addEventListener('input', computeConfigDiff);
       inp.addEventListener('change', computeConfigDiff);
@@ -399,8 +548,8 @@ document.addEventListener("DOMContentLoaded", () => {
 
   // Export events and logs views to separate text files
   function doExport(){
-    const eventsTxt = ($("#eventsData")?.innerText) || "";
-    const logsTxt = ($("#logsData")?.innerText) || "";
+    const eventsTxt = lists.eventsData?.text() || "";
+    const logsTxt = lists.logsData?.text() || "";
     downloadText("events.txt", eventsTxt); downloadText("logs.txt", logsTxt);
   }
 
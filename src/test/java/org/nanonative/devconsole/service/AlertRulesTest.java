@@ -0,0 +1,69 @@
+package org.nanonative.devconsole.service;
+
+import berlin.yuna.typemap.model.LinkedTypeMap;
+import org.junit.jupiter.api.Test;
+import org.nanonative.devconsole.util.AlertRules;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AlertRulesTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void firesOnlyAfterConditionHeldForDurationTest() {
+        final AlertRules alerts = new AlertRules();
+        alerts.rules("cpuUsage > 85% for 30s");
+        final Map<String, Double> metrics = Map.of("cpuUsage", 90.0);
+
+        assertThat(alerts.evaluate(metrics::get, SECOND)).isEmpty();
+        assertThat(alerts.evaluate(metrics::get, 20 * SECOND)).isEmpty();
+        final List<LinkedTypeMap> fired = alerts.evaluate(metrics::get, 31 * SECOND);
+        assertThat(fired).hasSize(1);
+        assertThat(fired.getFirst().asString("state")).isEqualTo(AlertRules.FIRING);
+        // Still firing is not a transition
+        assertThat(alerts.evaluate(metrics::get, 32 * SECOND)).isEmpty();
+        assertThat(alerts.firingCount()).isEqualTo(1);
+
+        final List<LinkedTypeMap> resolved = alerts.evaluate(Map.of("cpuUsage", 10.0)::get, 33 * SECOND);
+        assertThat(resolved).hasSize(1);
+        assertThat(resolved.getFirst().asString("state")).isEqualTo(AlertRules.RESOLVED);
+        assertThat((List<?>) alerts.snapshot().get("transitions")).hasSize(2);
+    }
+
+    @Test
+    void ratesAreDerivedFromCountersAndMetricsReadOncePerKeyTest() {
+        final AlertRules alerts = new AlertRules();
+        alerts.rules("eventsPerSecond:EVENT_ORDER > 100; eventsPerSecond:EVENT_ORDER > 1000\neventsPerSecond:EVENT_ORDER >= 50");
+        final AtomicInteger reads = new AtomicInteger();
+
+        assertThat(alerts.evaluate(key -> reads.incrementAndGet() * 0.0, SECOND)).isEmpty();
+        final List<LinkedTypeMap> fired = alerts.evaluate(key -> {
+            reads.incrementAndGet();
+            return 500;
+        }, 2 * SECOND);
+        assertThat(fired).extracting(t -> t.asString("rule")).containsExactly("eventsPerSecond:EVENT_ORDER > 100", "eventsPerSecond:EVENT_ORDER >= 50");
+        assertThat(reads.get()).isEqualTo(2);
+    }
+
+    @Test
+    void rejectsInvalidRulesAndKeepsStateOnReloadTest() {
+        assertThatThrownBy(() -> AlertRules.parse("memory > 5")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> AlertRules.parse("p99 > 200ms")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> AlertRules.parse("cpuUsage:EVENT_X > 5")).isInstanceOf(IllegalArgumentException.class);
+        assertThat(AlertRules.parse("p99:EVENT_HTTP_REQUEST > 200ms; heapUsage > 90%")).hasSize(2);
+
+        final AlertRules alerts = new AlertRules();
+        alerts.rules("heapUsage > 90%");
+        assertThat(alerts.evaluate(Map.of("heapUsage", 95.0)::get, SECOND)).hasSize(1);
+        alerts.rules("heapUsage > 90%; cpuUsage > 85%");
+        assertThat(alerts.firingCount()).isEqualTo(1);
+        assertThat(alerts.evaluate(Map.of("heapUsage", 95.0, "cpuUsage", 1.0)::get, 2 * SECOND)).isEmpty();
+    }
+}
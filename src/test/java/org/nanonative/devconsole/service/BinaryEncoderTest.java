@@ -0,0 +1,59 @@
+package org.nanonative.devconsole.service;
+
+import org.junit.jupiter.api.Test;
+import org.nanonative.devconsole.util.BinaryEncoder;
+import org.nanonative.devconsole.util.CborEncoder;
+import org.nanonative.devconsole.util.MsgPackEncoder;
+
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BinaryEncoderTest {
+
+    private static final Map<String, Object> SAMPLE = new LinkedHashMap<>(Map.of("a", List.of(1L, -1L, 500L, -200L, "hé", 1.5, true)));
+
+    @Test
+    void negotiateFromAcceptHeaderTest() {
+        assertThat(BinaryEncoder.forAccept("application/cbor")).isInstanceOf(CborEncoder.class);
+        assertThat(BinaryEncoder.forAccept("application/msgpack;q=0.9, application/json;q=0.5")).isInstanceOf(MsgPackEncoder.class);
+        assertThat(BinaryEncoder.forAccept("application/json;q=0.5, application/cbor")).isInstanceOf(CborEncoder.class);
+        assertThat(BinaryEncoder.forAccept("application/x-msgpack;q=0.8, application/cbor;q=0.9")).isInstanceOf(CborEncoder.class);
+        assertThat(BinaryEncoder.forAccept("application/json, application/cbor")).isNull();
+        // Refused with q=0, and a wildcard with a higher weight leaves the choice to the JSON default
+        assertThat(BinaryEncoder.forAccept("application/cbor;q=0, application/json")).isNull();
+        assertThat(BinaryEncoder.forAccept("application/cbor;q=0")).isNull();
+        assertThat(BinaryEncoder.forAccept("application/msgpack;q=0.9, */*")).isNull();
+        assertThat(BinaryEncoder.forAccept("*/*")).isNull();
+        assertThat(BinaryEncoder.forAccept(null)).isNull();
+    }
+
+    @Test
+    void cborEncodingTest() {
+        final byte[] bytes = new CborEncoder(8).write(SAMPLE).toByteArray();
+        assertThat(HexFormat.of().formatHex(bytes)).isEqualTo("a161618701201901f438c76368c3a9fb3ff8000000000000f5");
+    }
+
+    @Test
+    void msgPackEncodingTest() {
+        final byte[] bytes = new MsgPackEncoder(8).write(SAMPLE).toByteArray();
+        assertThat(HexFormat.of().formatHex(bytes)).isEqualTo("81a1619701ffcd01f4d1ff38a368c3a9cb3ff8000000000000c3");
+    }
+
+    @Test
+    void cborRoundTripTest() {
+        final byte[] bytes = new CborEncoder(8).write(SAMPLE).toByteArray();
+        assertThat(CborReader.read(bytes)).isEqualTo(Map.of("a", List.of(1L, -1L, 500L, -200L, "hé", 1.5, true)));
+    }
+
+    @Test
+    void instantIsEncodedAsEpochMillisTest() {
+        final Instant ts = Instant.ofEpochMilli(1_700_000_000_123L);
+        assertThat(new CborEncoder(8).write(ts).toByteArray()).isEqualTo(new CborEncoder(8).longValue(ts.toEpochMilli()).toByteArray());
+        assertThat(new MsgPackEncoder(8).write(ts).toByteArray()).isEqualTo(new MsgPackEncoder(8).longValue(ts.toEpochMilli()).toByteArray());
+    }
+}
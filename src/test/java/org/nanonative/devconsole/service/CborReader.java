@@ -0,0 +1,69 @@
+package org.nanonative.devconsole.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Decodes the definite-length subset CborEncoder writes, so tests can assert on binary responses field by field
+final class CborReader {
+
+    private final byte[] data;
+    private int position;
+
+    private CborReader(final byte[] data) {
+        this.data = data;
+    }
+
+    static Object read(final byte[] data) {
+        final CborReader reader = new CborReader(data);
+        final Object value = reader.next();
+        if (reader.position != data.length)
+            throw new IllegalArgumentException("Trailing bytes after position [" + reader.position + "]");
+        return value;
+    }
+
+    private Object next() {
+        final int initial = data[position++] & 0xff;
+        final int major = initial >>> 5;
+        final int info = initial & 0x1f;
+        if (major == 7) {
+            return switch (info) {
+                case 20 -> false;
+                case 21 -> true;
+                case 22 -> null;
+                case 27 -> Double.longBitsToDouble(number(8));
+                default -> throw new IllegalArgumentException("Unsupported simple value [" + info + "]");
+            };
+        }
+        final long value = info < 24 ? info : number(1 << (info - 24));
+        return switch (major) {
+            case 0 -> value;
+            case 1 -> -1 - value;
+            case 2 -> Arrays.copyOfRange(data, position, position += (int) value);
+            case 3 -> new String(Arrays.copyOfRange(data, position, position += (int) value), StandardCharsets.UTF_8);
+            case 4 -> {
+                final List<Object> list = new ArrayList<>();
+                for (long i = 0; i < value; i++)
+                    list.add(next());
+                yield list;
+            }
+            case 5 -> {
+                final Map<Object, Object> map = new LinkedHashMap<>();
+                for (long i = 0; i < value; i++)
+                    map.put(next(), next());
+                yield map;
+            }
+            default -> throw new IllegalArgumentException("Unsupported major type [" + major + "]");
+        };
+    }
+
+    private long number(final int bytes) {
+        long value = 0;
+        for (int i = 0; i < bytes; i++)
+            value = (value << 8) | (data[position++] & 0xff);
+        return value;
+    }
+}
@@ -0,0 +1,52 @@
+package org.nanonative.devconsole.service;
+
+import org.junit.jupiter.api.Test;
+import org.nanonative.devconsole.util.Compression;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompressionTest {
+
+    private static final byte[] BODY = "{\"channel\":\"APP_HEARTBEAT\",\"payload\":\"\"},".repeat(500).getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    void negotiateEncodingTest() {
+        assertThat(Compression.negotiate("gzip, deflate, br")).isEqualTo(Compression.GZIP);
+        assertThat(Compression.negotiate("gzip;q=0.5, deflate")).isEqualTo(Compression.DEFLATE);
+        assertThat(Compression.negotiate("gzip;q=0")).isNull();
+        assertThat(Compression.negotiate("*")).isEqualTo(Compression.GZIP);
+        assertThat(Compression.negotiate("br")).isNull();
+        assertThat(Compression.negotiate(null)).isNull();
+    }
+
+    @Test
+    void gzipRoundTripWithPooledCompressorTest() throws IOException {
+        for (int i = 0; i < 3; i++) {
+            final byte[] compressed = Compression.compress(BODY, Compression.GZIP);
+            assertThat(compressed.length).isLessThan(BODY.length / 10);
+            try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+                assertThat(in.readAllBytes()).isEqualTo(BODY);
+            }
+        }
+    }
+
+    @Test
+    void deflateRoundTripTest() throws IOException {
+        final long responses = Compression.responses();
+        final long bytesIn = Compression.bytesIn();
+        final byte[] compressed = Compression.compress(BODY, Compression.DEFLATE);
+        // Other tests may compress concurrently, the counters only grow
+        assertThat(Compression.responses()).isGreaterThan(responses);
+        assertThat(Compression.bytesIn()).isGreaterThanOrEqualTo(bytesIn + BODY.length);
+        try (InflaterInputStream in = new InflaterInputStream(new ByteArrayInputStream(compressed))) {
+            assertThat(in.readAllBytes()).isEqualTo(BODY);
+        }
+        assertThat(Compression.stats()).containsKeys("responses", "ratio", "avgMicros");
+    }
+}
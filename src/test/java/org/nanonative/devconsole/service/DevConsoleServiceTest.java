@@ -1,8 +1,12 @@
 package org.nanonative.devconsole.service;
 
+import berlin.yuna.typemap.model.LinkedTypeMap;
 import berlin.yuna.typemap.model.TypeInfo;
 import org.junit.jupiter.api.Test;
+import org.nanonative.devconsole.util.HeapDumper;
 import org.nanonative.nano.core.Nano;
+import org.nanonative.nano.core.model.Context;
+import org.nanonative.nano.helper.event.model.Event;
 import org.nanonative.nano.services.http.HttpClient;
 import org.nanonative.nano.services.http.HttpServer;
 import org.nanonative.nano.services.http.model.ContentType;
@@ -10,19 +14,37 @@ import org.nanonative.nano.services.http.model.HttpMethod;
 import org.nanonative.nano.services.http.model.HttpObject;
 import org.nanonative.nano.services.metric.logic.MetricService;
 
+import java.nio.file.Files;
 import java.time.Instant;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
 import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
 
 import static org.nanonative.devconsole.service.DevConsoleService.BASE_URL;
+import static org.nanonative.devconsole.service.DevConsoleService.CONFIG_DEV_CONSOLE_MAX_BYTES;
+import static org.nanonative.devconsole.service.DevConsoleService.CONFIG_DEV_CONSOLE_PEERS;
+import static org.nanonative.devconsole.service.DevConsoleService.CONFIG_DEV_CONSOLE_PEER_TIMEOUT_MS;
+import static org.nanonative.devconsole.service.DevConsoleService.CONFIG_DEV_CONSOLE_PROFILE_LISTENERS;
+import static org.nanonative.devconsole.service.DevConsoleService.CONFIG_DEV_CONSOLE_RATE_LIMIT;
+import static org.nanonative.devconsole.service.DevConsoleService.CONFIG_DEV_CONSOLE_TRUST_FORWARDED;
 import static org.nanonative.devconsole.service.DevConsoleService.CONFIG_DEV_CONSOLE_URL;
 import static org.nanonative.devconsole.service.DevConsoleService.DEFAULT_MAX_EVENTS;
+import static org.nanonative.devconsole.service.DevConsoleService.DEV_CLUSTER_URL;
 import static org.nanonative.devconsole.service.DevConsoleService.DEFAULT_MAX_LOGS;
 import static org.nanonative.devconsole.service.DevConsoleService.DEFAULT_UI_URL;
 import static org.nanonative.devconsole.service.DevConsoleService.DEV_CONFIG_URL;
 import static org.nanonative.devconsole.service.DevConsoleService.DEV_EVENTS_URL;
+import static org.nanonative.devconsole.service.DevConsoleService.DEV_HEAP_DUMP_URL;
+import static org.nanonative.devconsole.service.DevConsoleService.DEV_HEAP_HISTOGRAM_URL;
 import static org.nanonative.devconsole.service.DevConsoleService.DEV_INFO_URL;
+import static org.nanonative.devconsole.service.DevConsoleService.DEV_LOADGEN_URL;
 import static org.nanonative.devconsole.service.DevConsoleService.DEV_LOGS_URL;
+import static org.nanonative.devconsole.service.DevConsoleService.DEV_METRICS_URL;
+import static org.nanonative.devconsole.service.DevConsoleService.DEV_TOPOLOGY_URL;
+import static org.nanonative.devconsole.service.DevConsoleService.DEV_TRACES_URL;
+import static org.nanonative.nano.services.http.HttpServer.EVENT_HTTP_REQUEST;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.nanonative.devconsole.service.DevConsoleService.DEV_SERVICE_URL;
 import static org.nanonative.devconsole.util.UiHelper.STATIC_FILES;
@@ -46,6 +68,99 @@ class DevConsoleServiceTest {
         assertThat(nano.stop(DevConsoleServiceTest.class).waitForStop().isReady()).isFalse();
     }
 
+    @Test
+    void fetchEventsAsCborTest() {
+        final Nano nano = new Nano(new HttpServer(), new DevConsoleService(), new HttpClient());
+        final String eventsUrl = serverUrl + nano.service(HttpServer.class).port() + BASE_URL + DEV_EVENTS_URL;
+        nano.context(DevConsoleServiceTest.class).newEvent(EVENT_HTTP_REQUEST, () -> new HttpObject().path("/cbor-test")).send();
+        final HttpObject result = new HttpObject()
+            .methodType(HttpMethod.GET)
+            .header("accept", "application/cbor")
+            .path(eventsUrl)
+            .send(nano.context(DevConsoleServiceTest.class));
+        assertThat(result.statusCode()).isEqualTo(200);
+        assertThat(result.header("content-type")).contains("application/cbor");
+        final Map<?, ?> full = (Map<?, ?>) CborReader.read(result.body());
+        assertThat(full.keySet()).containsExactly("channels", "events");
+        assertCborEvent((List<?>) full.get("channels"), (List<?>) full.get("events"), "cbor-test");
+
+        // The incremental format uses the same channel dictionary
+        final HttpObject since = new HttpObject()
+            .methodType(HttpMethod.GET)
+            .header("accept", "application/cbor")
+            .path(eventsUrl + "?since=0")
+            .send(nano.context(DevConsoleServiceTest.class));
+        final Map<?, ?> changes = (Map<?, ?>) CborReader.read(since.body());
+        assertThat(changes.keySet()).containsExactly("version", "lastId", "firstId", "reset", "channels", "entries");
+        assertThat(changes.get("reset")).isEqualTo(false);
+        assertCborEvent((List<?>) changes.get("channels"), (List<?>) changes.get("entries"), "cbor-test");
+
+        // A refused type falls back to JSON
+        final HttpObject refused = new HttpObject()
+            .methodType(HttpMethod.GET)
+            .header("accept", "application/cbor;q=0, application/json")
+            .path(eventsUrl)
+            .send(nano.context(DevConsoleServiceTest.class));
+        assertThat(refused.header("content-type")).contains("application/json");
+        assertThat(nano.stop(DevConsoleServiceTest.class).waitForStop().isReady()).isFalse();
+    }
+
+    private static void assertCborEvent(final List<?> channels, final List<?> events, final String payload) {
+        final Map<?, ?> event = events.stream()
+            .map(Map.class::cast)
+            .filter(e -> String.valueOf(e.get("payload")).contains(payload))
+            .findFirst()
+            .orElseThrow(() -> new AssertionError("No event with payload [" + payload + "] in " + events));
+        assertThat(event.get("id")).isInstanceOf(Long.class);
+        assertThat(event.get("isAck")).isInstanceOf(Boolean.class);
+        assertThat(event.get("eventTimestamp")).isInstanceOf(Long.class);
+        assertThat(channels.get(((Long) event.get("channel")).intValue())).isEqualTo(EVENT_HTTP_REQUEST.name());
+    }
+
+    @Test
+    void fetchEventsSinceReturnsOnlyNewerTest() {
+        final DevConsoleService devConsole = new DevConsoleService();
+        final Nano nano = new Nano(new HttpServer(), devConsole, new HttpClient());
+        final String eventsUrl = serverUrl + nano.service(HttpServer.class).port() + BASE_URL + DEV_EVENTS_URL;
+        final long version = devConsole.getEventsSince(0).asLong("version");
+
+        final HttpObject unchanged = new HttpObject()
+            .methodType(HttpMethod.GET)
+            .path(eventsUrl + "?since=" + version)
+            .send(nano.context(DevConsoleServiceTest.class));
+        assertThat(unchanged.statusCode()).isEqualTo(200);
+        assertThat(unchanged.bodyAsString()).contains("\"entries\":[]").contains("\"reset\":false");
+
+        nano.context(DevConsoleServiceTest.class).newEvent(EVENT_HTTP_REQUEST, () -> new HttpObject().path("/since-test")).send();
+        final HttpObject result = new HttpObject()
+            .methodType(HttpMethod.GET)
+            .path(eventsUrl + "?since=" + version)
+            .send(nano.context(DevConsoleServiceTest.class));
+        assertThat(result.bodyAsString()).contains("since-test");
+        assertThat(devConsole.getEventsSince(version).asLong("version")).isGreaterThan(version);
+        // Versions from before a restart of the sequence make the client start over
+        assertThat(devConsole.getEventsSince(version + 100_000).asBoolean("reset")).isTrue();
+        assertThat(nano.stop(DevConsoleServiceTest.class).waitForStop().isReady()).isFalse();
+    }
+
+    @Test
+    void answeredEventsComeAgainWithNewVersionTest() {
+        final DevConsoleService devConsole = new DevConsoleService();
+        final Nano nano = new Nano(devConsole);
+        final HttpObject request = new HttpObject().path("/version-test");
+        final Event<HttpObject, HttpObject> event = nano.context(DevConsoleServiceTest.class).newEvent(EVENT_HTTP_REQUEST, () -> request);
+        devConsole.recordEvent(event);
+        final long version = devConsole.getEventsSince(0).asLong("version");
+        assertThat(devConsole.getEventsSince(version).toJson()).doesNotContain("version-test");
+
+        event.respond(request.createCorsResponse().statusCode(200).body("answered"));
+        devConsole.settleResponses();
+        final LinkedTypeMap changed = devConsole.getEventsSince(version);
+        assertThat(changed.asLong("version")).isGreaterThan(version);
+        assertThat(changed.toJson()).contains("version-test").contains("\"isAck\":true");
+        assertThat(nano.stop(DevConsoleServiceTest.class).waitForStop().isReady()).isFalse();
+    }
+
     @Test
     void fetchSystemInfoTest() {
         final Nano nano = new Nano(new HttpServer(), new DevConsoleService(), new HttpClient());
@@ -55,10 +170,239 @@ class DevConsoleServiceTest {
             .send(nano.context(DevConsoleServiceTest.class));
         assertThat(result.statusCode()).isEqualTo(200);
         assertThat(result.hasContentType(ContentType.APPLICATION_JSON));
-        assertThat(result.bodyAsString()).contains("pid").contains("totalEvents");
+        assertThat(result.bodyAsString()).contains("pid").contains("totalEvents").contains("startupPhases");
         assertThat(nano.stop(DevConsoleServiceTest.class).waitForStop().isReady()).isFalse();
     }
 
+    @Test
+    void startDoesNotWaitForServiceIndexTest() throws InterruptedException {
+        final CountDownLatch indexGate = new CountDownLatch(1);
+        final DevConsoleService devConsole = new DevConsoleService() {
+            @Override
+            protected void populateServiceIndex() {
+                try {
+                    indexGate.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.populateServiceIndex();
+            }
+        };
+        final Nano nano = new Nano(new HttpServer(), devConsole, new HttpClient());
+        final String baseUrl = serverUrl + nano.service(HttpServer.class).port() + BASE_URL;
+        // start() returned while the classpath scan is still held back
+        assertThat(devConsole.serviceIndexReady).isNotDone();
+        assertThat(devConsole.startupPhases).containsKeys("subscribeChannels", "start").doesNotContainKey("serviceIndex");
+
+        final HttpObject info = new HttpObject()
+            .methodType(HttpMethod.GET)
+            .path(baseUrl + DEV_INFO_URL)
+            .send(nano.context(DevConsoleServiceTest.class));
+        assertThat(info.statusCode()).isEqualTo(200);
+        assertThat(info.bodyAsString()).contains("startupPhases").contains("subscribeChannels").doesNotContain("inactiveServices");
+
+        final HttpObject register = new HttpObject()
+            .methodType(HttpMethod.PATCH)
+            .path(baseUrl + DEV_SERVICE_URL + "/MetricService")
+            .send(nano.context(DevConsoleServiceTest.class));
+        assertThat(register.statusCode()).isEqualTo(503);
+        assertThat(register.header("retry-after")).isEqualTo("1");
+
+        indexGate.countDown();
+        waitUntil(() -> devConsole.startupPhases.containsKey("serviceIndex"));
+        assertThat(devConsole.serviceIndexReady).isDone();
+        assertThat(nano.stop(DevConsoleServiceTest.class).waitForStop().isReady()).isFalse();
+    }
+
+    @Test
+    void fetchMetricsTest() {
+        final Nano nano = new Nano(new HttpServer(), new DevConsoleService(), new HttpClient());
+        final HttpObject result = new HttpObject()
+            .methodType(HttpMethod.GET)
+            .path(serverUrl + nano.service(HttpServer.class).port() + BASE_URL + DEV_METRICS_URL)
+            .send(nano.context(DevConsoleServiceTest.class));
+        assertThat(result.statusCode()).isEqualTo(200);
+        assertThat(result.bodyAsString())
+            .contains("# TYPE nano_heap_usage_ratio gauge")
+            .contains("# TYPE nano_events_total counter")
+            .contains("nano_channel_events_total{channel=\"")
+            .contains("devconsole_retained_bytes")
+            .contains("# TYPE devconsole_compression_output_bytes_total counter");
+        // Sent without Accept-Encoding, so uncompressed, but still marked as negotiated
+        assertThat(result.header("vary")).isEqualTo("Accept-Encoding");
+
+        final HttpObject openMetrics = new HttpObject()
+            .methodType(HttpMethod.GET)
+            .header("accept", "application/openmetrics-text; version=1.0.0")
+            .path(serverUrl + nano.service(HttpServer.class).port() + BASE_URL + DEV_METRICS_URL)
+            .send(nano.context(DevConsoleServiceTest.class));
+        assertThat(openMetrics.statusCode()).isEqualTo(200);
+        assertThat(openMetrics.bodyAsString()).contains("# TYPE nano_events counter").endsWith("# EOF\n");
+        assertThat(nano.stop(DevConsoleServiceTest.class).waitForStop().isReady()).isFalse();
+    }
+
+    @Test
+    void rateLimitReturns429Test() {
+        final Nano nano = new Nano(Map.of(CONFIG_DEV_CONSOLE_RATE_LIMIT, 1), new HttpServer(), new DevConsoleService(), new HttpClient());
+        HttpObject result = null;
+        for (int i = 0; i < 5; i++) {
+            result = new HttpObject()
+                .methodType(HttpMethod.GET)
+                .path(serverUrl + nano.service(HttpServer.class).port() + BASE_URL + DEV_CONFIG_URL)
+                .send(nano.context(DevConsoleServiceTest.class));
+        }
+        assertThat(result.statusCode()).isEqualTo(429);
+        assertThat(result.header("retry-after")).isEqualTo("1");
+        assertThat(nano.stop(DevConsoleServiceTest.class).waitForStop().isReady()).isFalse();
+    }
+
+    @Test
+    void rateLimitIgnoresForwardedHeadersUnlessTrustedTest() {
+        final Nano nano = new Nano(Map.of(CONFIG_DEV_CONSOLE_RATE_LIMIT, 1), new HttpServer(), new DevConsoleService(), new HttpClient());
+        final String configUrl = serverUrl + nano.service(HttpServer.class).port() + BASE_URL + DEV_CONFIG_URL;
+        HttpObject result = null;
+        // A new spoofed address per request still lands in the bucket of the peer address
+        for (int i = 0; i < 5; i++) {
+            result = new HttpObject()
+                .methodType(HttpMethod.GET)
+                .header("x-forwarded-for", "10.0.0." + i)
+                .path(configUrl)
+                .send(nano.context(DevConsoleServiceTest.class));
+        }
+        assertThat(result.statusCode()).isEqualTo(429);
+        assertThat(nano.stop(DevConsoleServiceTest.class).waitForStop().isReady()).isFalse();
+
+        // Trusted headers get a bucket per forwarded address
+        final Nano trusted = new Nano(Map.of(CONFIG_DEV_CONSOLE_RATE_LIMIT, 1, CONFIG_DEV_CONSOLE_TRUST_FORWARDED, true), new HttpServer(), new DevConsoleService(), new HttpClient());
+        final String trustedUrl = serverUrl + trusted.service(HttpServer.class).port() + BASE_URL + DEV_CONFIG_URL;
+        for (int i = 0; i < 5; i++) {
+            result = new HttpObject()
+                .methodType(HttpMethod.GET)
+                .header("x-forwarded-for", "10.0.0." + i)
+                .path(trustedUrl)
+                .send(trusted.context(DevConsoleServiceTest.class));
+            assertThat(result.statusCode()).isEqualTo(200);
+        }
+        assertThat(trusted.stop(DevConsoleServiceTest.class).waitForStop().isReady()).isFalse();
+    }
+
+    @Test
+    void fetchTopologyWithProfilingTest() {
+        final Nano nano = new Nano(Map.of(CONFIG_DEV_CONSOLE_PROFILE_LISTENERS, true), new HttpServer(), new DevConsoleService(), new HttpClient());
+        nano.context(DevConsoleServiceTest.class).info(() -> "profiled log line");
+        final HttpObject result = new HttpObject()
+            .methodType(HttpMethod.GET)
+            .path(serverUrl + nano.service(HttpServer.class).port() + BASE_URL + DEV_TOPOLOGY_URL)
+            .send(nano.context(DevConsoleServiceTest.class));
+        assertThat(result.statusCode()).isEqualTo(200);
+        assertThat(result.bodyAsString()).contains("\"profiling\":true").contains("DevConsoleService").contains("latency");
+
+        final HttpObject disabled = new HttpObject()
+            .methodType(HttpMethod.PATCH)
+            .body(Map.of("profiling", false))
+            .path(serverUrl + nano.service(HttpServer.class).port() + BASE_URL + DEV_TOPOLOGY_URL)
+            .send(nano.context(DevConsoleServiceTest.class));
+        assertThat(disabled.statusCode()).isEqualTo(200);
+        assertThat(disabled.bodyAsString()).contains("\"profiling\":false").doesNotContain("latency");
+        assertThat(nano.stop(DevConsoleServiceTest.class).waitForStop().isReady()).isFalse();
+    }
+
+    @Test
+    void tracesLinkEventsSentFromListenersTest() {
+        final Nano nano = new Nano(new HttpServer(), new DevConsoleService(), new HttpClient());
+        final Context context = nano.context(DevConsoleServiceTest.class);
+        final String baseUrl = serverUrl + nano.service(HttpServer.class).port();
+        context.subscribeEvent(EVENT_HTTP_REQUEST, (event, request) -> {
+            if (request.pathMatch("/traced")) {
+                new HttpObject().methodType(HttpMethod.GET).path(baseUrl + "/downstream").send(context);
+                event.respond(request.createCorsResponse().statusCode(200).body("traced"));
+            }
+        });
+
+        final HttpObject enabled = new HttpObject()
+            .methodType(HttpMethod.PATCH)
+            .body(Map.of("enabled", true))
+            .path(baseUrl + BASE_URL + DEV_TRACES_URL)
+            .send(context);
+        assertThat(enabled.statusCode()).isEqualTo(200);
+        assertThat(enabled.bodyAsString()).contains("\"enabled\":true");
+
+        assertThat(new HttpObject().methodType(HttpMethod.GET).path(baseUrl + "/traced").send(context).statusCode()).isEqualTo(200);
+        final HttpObject result = new HttpObject()
+            .methodType(HttpMethod.GET)
+            .path(baseUrl + BASE_URL + DEV_TRACES_URL)
+            .send(context);
+        assertThat(result.statusCode()).isEqualTo(200);
+        assertThat(result.bodyAsString()).contains("traceId").contains("parentId").contains("\"depth\":1");
+        assertThat(nano.stop(DevConsoleServiceTest.class).waitForStop().isReady()).isFalse();
+    }
+
+    @Test
+    void syntheticLoadReportsThroughputTest() throws InterruptedException {
+        final DevConsoleService devConsole = new DevConsoleService();
+        final Nano nano = new Nano(new HttpServer(), devConsole, new HttpClient());
+        final String loadgenUrl = serverUrl + nano.service(HttpServer.class).port() + BASE_URL + DEV_LOADGEN_URL;
+        final HttpObject started = new HttpObject()
+            .methodType(HttpMethod.POST)
+            .body(Map.of("mode", "synthetic", "rate", 500, "durationMs", 200, "payloadBytes", 64, "concurrency", 4))
+            .path(loadgenUrl)
+            .send(nano.context(DevConsoleServiceTest.class));
+        assertThat(started.statusCode()).isEqualTo(200);
+        assertThat(started.bodyAsString()).contains("synthetic");
+
+        waitUntil(() -> !devConsole.loadGenerator.current().running());
+        final HttpObject result = new HttpObject()
+            .methodType(HttpMethod.GET)
+            .path(loadgenUrl)
+            .send(nano.context(DevConsoleServiceTest.class));
+        assertThat(result.bodyAsString()).contains("\"running\":false").contains("throughputPerSecond").contains("p99Micros");
+        assertThat(devConsole.loadGenerator.current().status().asLong("sent")).isPositive();
+        // Generated events are counted but never retained
+        assertThat(devConsole.eventHistory).noneMatch(event -> event.channel().equals(DevConsoleService.EVENT_DEV_CONSOLE_LOADGEN));
+        assertThat(nano.stop(DevConsoleServiceTest.class).waitForStop().isReady()).isFalse();
+    }
+
+    @Test
+    void heapHistogramAndChunkedDumpTest() throws InterruptedException {
+        // A small fake dump keeps the endpoint test fast, HeapDumperTest covers the dump lifecycle
+        final DevConsoleService devConsole = new DevConsoleService((file, live) -> Files.write(file, "JAVA PROFILE 1.0.2".getBytes()));
+        final Nano nano = new Nano(new HttpServer(), devConsole, new HttpClient());
+        final String heapUrl = serverUrl + nano.service(HttpServer.class).port() + BASE_URL;
+        final HttpObject histogram = new HttpObject()
+            .methodType(HttpMethod.GET)
+            .path(heapUrl + DEV_HEAP_HISTOGRAM_URL + "?limit=5")
+            .send(nano.context(DevConsoleServiceTest.class));
+        assertThat(histogram.statusCode()).isEqualTo(200);
+        assertThat(histogram.bodyAsString()).contains("byBytes").contains("byInstances").contains("java.lang.String");
+
+        final HttpObject started = new HttpObject()
+            .methodType(HttpMethod.POST)
+            .body(Map.of("live", true))
+            .path(heapUrl + DEV_HEAP_DUMP_URL)
+            .send(nano.context(DevConsoleServiceTest.class));
+        assertThat(started.statusCode()).isEqualTo(200);
+        waitUntil(() -> !HeapDumper.RUNNING.equals(devConsole.heapDumper.status().get("state")));
+        assertThat(devConsole.heapDumper.status().get("state")).isEqualTo(HeapDumper.READY);
+        final Object id = devConsole.heapDumper.status().get("id");
+
+        final HttpObject chunk = new HttpObject()
+            .methodType(HttpMethod.GET)
+            .path(heapUrl + DEV_HEAP_DUMP_URL + "?id=" + id + "&chunk=0")
+            .send(nano.context(DevConsoleServiceTest.class));
+        assertThat(chunk.statusCode()).isEqualTo(200);
+        // gzip magic bytes
+        assertThat(chunk.body()).startsWith((byte) 0x1f, (byte) 0x8b);
+
+        // Chunks of another dump are refused instead of mixing two files
+        final HttpObject stale = new HttpObject()
+            .methodType(HttpMethod.GET)
+            .path(heapUrl + DEV_HEAP_DUMP_URL + "?id=replaced-1&chunk=0")
+            .send(nano.context(DevConsoleServiceTest.class));
+        assertThat(stale.statusCode()).isEqualTo(410);
+        assertThat(nano.stop(DevConsoleServiceTest.class).waitForStop().isReady()).isFalse();
+        assertThat(devConsole.heapDumper.status().get("state")).isEqualTo("none");
+    }
+
     @Test
     void fetchLogTest() {
         String log = "Test log output";
@@ -121,6 +465,61 @@ class DevConsoleServiceTest {
         assertThat(nano.stop(DevConsoleServiceTest.class).waitForStop().isReady()).isFalse();
     }
 
+    @Test
+    void retentionStaysWithinByteBudgetTest() {
+        final long maxBytes = 4096;
+        final DevConsoleService devConsole = new DevConsoleService();
+        final Nano nano = new Nano(Map.of(CONFIG_DEV_CONSOLE_MAX_BYTES, maxBytes), new HttpServer(), devConsole, new HttpClient());
+        for (int i = 0; i < 200; i++) {
+            final int n = i;
+            nano.context(DevConsoleServiceTest.class).info(() -> "Budget log line " + n + " " + "x".repeat(256));
+        }
+        assertThat(devConsole.retainedBytes()).isPositive().isLessThanOrEqualTo(maxBytes);
+        assertThat(devConsole.logHistory.size()).isLessThan(200);
+
+        final HttpObject result = new HttpObject()
+            .methodType(HttpMethod.GET)
+            .path(serverUrl + nano.service(HttpServer.class).port() + BASE_URL + DEV_INFO_URL)
+            .send(nano.context(DevConsoleServiceTest.class));
+        assertThat(result.statusCode()).isEqualTo(200);
+        assertThat(result.bodyAsString()).contains("retainedBytes").contains("maxRetainedBytes");
+        assertThat(nano.stop(DevConsoleServiceTest.class).waitForStop().isReady()).isFalse();
+    }
+
+    @Test
+    void fetchClusterViewTest() throws InterruptedException {
+        final Nano peer = new Nano(new HttpServer(), new DevConsoleService(), new HttpClient());
+        final String peerUrl = serverUrl + peer.service(HttpServer.class).port();
+        final String deadPeerUrl = serverUrl + "1";
+        final Nano nano = new Nano(Map.of(
+            CONFIG_DEV_CONSOLE_PEERS, peerUrl + "," + deadPeerUrl,
+            CONFIG_DEV_CONSOLE_PEER_TIMEOUT_MS, 500
+        ), new HttpServer(), new DevConsoleService(), new HttpClient());
+        peer.context(DevConsoleServiceTest.class).info(() -> "peer log line");
+
+        final Supplier<HttpObject> cluster = () -> new HttpObject()
+            .methodType(HttpMethod.GET)
+            .path(serverUrl + nano.service(HttpServer.class).port() + BASE_URL + DEV_CLUSTER_URL)
+            .send(nano.context(DevConsoleServiceTest.class));
+
+        // Never waits for peers, they show up as pending until their first answer arrives
+        final long startMs = System.currentTimeMillis();
+        final HttpObject first = cluster.get();
+        assertThat(System.currentTimeMillis() - startMs).isLessThan(TIMEOUT_MS);
+        assertThat(first.statusCode()).isEqualTo(200);
+        assertThat(first.bodyAsString()).contains("aggregate").contains(peerUrl).contains(deadPeerUrl);
+
+        waitUntil(() -> {
+            final String body = cluster.get().bodyAsString();
+            return body.contains("unreachable") && body.contains("peer log line");
+        });
+        assertThat(cluster.get().bodyAsString())
+            .contains("aggregate").contains("nodesUp").contains("cpuUsageAvg")
+            .contains(peerUrl).contains(deadPeerUrl).contains("unreachable").contains("peer log line");
+        assertThat(peer.stop(DevConsoleServiceTest.class).waitForStop().isReady()).isFalse();
+        assertThat(nano.stop(DevConsoleServiceTest.class).waitForStop().isReady()).isFalse();
+    }
+
     @Test
     void fetchHtmlUsingDefaultUrlTest() {
         final Nano nano = new Nano(new HttpServer(), new DevConsoleService(), new HttpClient());
@@ -164,6 +563,26 @@ class DevConsoleServiceTest {
         assertThat(nano.stop(DevConsoleServiceTest.class).waitForStop().isReady()).isFalse();
     }
 
+    @Test
+    void uiAssetsRevalidateWithEtagTest() {
+        final Nano nano = new Nano(new HttpServer(), new DevConsoleService(), new HttpClient());
+        final String url = serverUrl + nano.service(HttpServer.class).port() + BASE_URL + "/style.css";
+        final HttpObject first = new HttpObject()
+            .methodType(HttpMethod.GET)
+            .path(url)
+            .send(nano.context(DevConsoleServiceTest.class));
+        assertThat(first.statusCode()).isEqualTo(200);
+        assertThat(first.header("etag")).isEqualTo(STATIC_FILES.get("style.css").etag());
+
+        final HttpObject revalidated = new HttpObject()
+            .methodType(HttpMethod.GET)
+            .header("if-none-match", first.header("etag"))
+            .path(url)
+            .send(nano.context(DevConsoleServiceTest.class));
+        assertThat(revalidated.statusCode()).isEqualTo(304);
+        assertThat(nano.stop(DevConsoleServiceTest.class).waitForStop().isReady()).isFalse();
+    }
+
     @Test
     void fetchCssTest() {
         final Nano nano = new Nano(new HttpServer(), new DevConsoleService(), new HttpClient());
@@ -258,6 +677,8 @@ class DevConsoleServiceTest {
         final long serviceCountBefore = devConsole.getFilteredServices().size();
         assertThat(responseBody).hasFieldOrPropertyWithValue("runningServices", serviceCountBefore);
 
+        // The index is built in the background, registering before that is answered with 503
+        waitUntil(devConsole::isServiceIndexReady);
         final HttpObject registerResult = new HttpObject()
             .methodType(HttpMethod.PATCH)
             .path(serverUrl + nano.service(HttpServer.class).port() + BASE_URL + DEV_SERVICE_URL + "/MetricService")
@@ -295,6 +716,8 @@ class DevConsoleServiceTest {
         final long serviceCountBefore = devConsole.getFilteredServices().size();
         assertThat(responseBody).hasFieldOrPropertyWithValue("runningServices", serviceCountBefore);
 
+        // The index is built in the background, registering before that is answered with 503
+        waitUntil(devConsole::isServiceIndexReady);
         final HttpObject registerResult = new HttpObject()
             .methodType(HttpMethod.PATCH)
             .path(serverUrl + nano.service(HttpServer.class).port() + BASE_URL + DEV_SERVICE_URL + "/MetricService")
@@ -0,0 +1,125 @@
+package org.nanonative.devconsole.service;
+
+import berlin.yuna.typemap.model.LinkedTypeMap;
+import org.junit.jupiter.api.Test;
+import org.nanonative.devconsole.util.HeapDumper;
+import org.nanonative.devconsole.util.HeapHistogram;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.nanonative.devconsole.util.SystemUtil.VIRTUAL_EXECUTOR;
+
+class HeapDumperTest {
+
+    private static final byte[] FAKE_HPROF = "JAVA PROFILE 1.0.2".getBytes();
+
+    @Test
+    void previousDumpStaysAvailableUntilTheNextIsReadyTest() throws IOException, InterruptedException {
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch writing = new CountDownLatch(1);
+        final int[] dumps = {0};
+        final HeapDumper dumper = new HeapDumper(VIRTUAL_EXECUTOR, (file, live) -> {
+            if (++dumps[0] == 2) {
+                writing.countDown();
+                await(release);
+            }
+            Files.write(file, FAKE_HPROF);
+        });
+        assertThatThrownBy(() -> dumper.chunk("none", 0)).isInstanceOf(IllegalStateException.class);
+
+        dumper.start(true);
+        waitForDump(dumper);
+        assertThat(dumper.status().get("state")).isEqualTo(HeapDumper.READY);
+        final String firstId = (String) dumper.status().get("id");
+        final byte[] first = dumper.chunk(firstId, 0);
+        // gzip magic bytes
+        assertThat(first).startsWith((byte) 0x1f, (byte) 0x8b);
+
+        // The first dump is still served while the second one is written
+        dumper.start(false);
+        assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(dumper.status().get("state")).isEqualTo(HeapDumper.RUNNING);
+        assertThat(dumper.status().get("id")).isNotEqualTo(firstId);
+        assertThat(((Map<?, ?>) dumper.status().get("previous")).get("id")).isEqualTo(firstId);
+        assertThat(dumper.chunk(firstId, 0)).isEqualTo(first);
+        assertThatThrownBy(() -> dumper.start(true)).isInstanceOf(IllegalStateException.class);
+
+        release.countDown();
+        waitForDump(dumper);
+        assertThat(dumper.status().get("state")).isEqualTo(HeapDumper.READY);
+        assertThat(dumper.status().get("previous")).isNull();
+        // A download of the replaced dump can't continue with chunks of the new one
+        assertThatThrownBy(() -> dumper.chunk(firstId, 0)).isInstanceOf(NoSuchFileException.class);
+        final String secondId = (String) dumper.status().get("id");
+        assertThat(dumper.chunk(secondId, 0)).startsWith((byte) 0x1f, (byte) 0x8b);
+
+        dumper.delete();
+        assertThat(dumper.status().get("state")).isEqualTo("none");
+        assertThatThrownBy(() -> dumper.chunk(secondId, 0)).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void failedDumpKeepsThePreviousOneTest() throws IOException, InterruptedException {
+        final boolean[] fail = {false};
+        final HeapDumper dumper = new HeapDumper(VIRTUAL_EXECUTOR, (file, live) -> {
+            if (fail[0])
+                throw new IOException("disk full");
+            Files.write(file, FAKE_HPROF);
+        });
+        dumper.start(true);
+        waitForDump(dumper);
+        final String id = (String) dumper.status().get("id");
+        final byte[] first = dumper.chunk(id, 0);
+
+        fail[0] = true;
+        dumper.start(true);
+        waitForDump(dumper);
+        assertThat(dumper.status().get("state")).isEqualTo(HeapDumper.FAILED);
+        assertThat(dumper.status().get("error")).isEqualTo("disk full");
+        assertThat(dumper.status().get("previous")).isNotNull();
+        assertThat(dumper.chunk(id, 0)).isEqualTo(first);
+        dumper.delete();
+    }
+
+    @Test
+    void histogramIsCutToTheRequestedLimitTest() {
+        final String output = """
+             num     #instances         #bytes  class name (module)
+            -------------------------------------------------------
+               1:            10           4000  [B (java.base@21)
+               2:           300           3000  java.lang.String (java.base@21)
+               3:            20           2000  java.util.HashMap$Node (java.base@21)
+            Total           330           9000
+            """;
+        final LinkedTypeMap snapshot = HeapHistogram.parse(output, HeapHistogram.MAX_LIMIT);
+        final LinkedTypeMap top = HeapHistogram.top(snapshot, 1);
+
+        assertThat((List<?>) top.get("byBytes")).hasSize(1);
+        assertThat((List<?>) top.get("byInstances")).hasSize(1);
+        assertThat(top.get("totalBytes")).isEqualTo(9000L);
+        // The cached snapshot keeps all rows
+        assertThat((List<?>) snapshot.get("byBytes")).hasSize(3);
+    }
+
+    private static void waitForDump(final HeapDumper dumper) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 5_000;
+        while (HeapDumper.RUNNING.equals(dumper.status().get("state")) && System.currentTimeMillis() < deadline)
+            Thread.sleep(10);
+    }
+
+    private static void await(final CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package org.nanonative.devconsole.service;
+
+import org.junit.jupiter.api.Test;
+import org.nanonative.devconsole.util.LatencyHistogram;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LatencyHistogramTest {
+
+    @Test
+    void windowPercentileIgnoresEarlierRecordingsTest() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 1000; i++)
+            histogram.record(50_000_000);
+        final long[] before = histogram.bucketCounts();
+        for (int i = 0; i < 1000; i++)
+            histogram.record(100_000);
+        final long[] after = histogram.bucketCounts();
+
+        // The slow recordings dominate the lifetime p99, the window only sees the fast ones
+        assertThat(histogram.percentileMicros(99)).isGreaterThan(10_000);
+        assertThat(LatencyHistogram.percentileMicros(before, after, 99)).isBetween(65.0, 131.1);
+        assertThat(LatencyHistogram.percentileMicros(after, after, 99)).isNaN();
+    }
+
+    @Test
+    void windowPercentileInterpolatesInsideBucketTest() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        final long[] before = histogram.bucketCounts();
+        // 1024 - 2047 ns share one bucket
+        for (int i = 0; i < 100; i++)
+            histogram.record(1500);
+        final long[] after = histogram.bucketCounts();
+
+        final double p50 = LatencyHistogram.percentileMicros(before, after, 50);
+        final double p99 = LatencyHistogram.percentileMicros(before, after, 99);
+        assertThat(p50).isLessThan(p99);
+        assertThat(p99).isLessThanOrEqualTo(2.05);
+    }
+}
@@ -0,0 +1,80 @@
+package org.nanonative.devconsole.service;
+
+import berlin.yuna.typemap.model.TypeList;
+import org.junit.jupiter.api.Test;
+import org.nanonative.devconsole.util.ListenerTopology;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ListenerTopologyTest {
+
+    @Test
+    void topologyIsCachedUntilListenersChangeTest() {
+        final Map<String, Set<Consumer<Object>>> listeners = new ConcurrentHashMap<>();
+        listeners.computeIfAbsent("ORDERS", k -> ConcurrentHashMap.newKeySet()).add(event -> {});
+        final ListenerTopology topology = new ListenerTopology();
+
+        final TypeList first = topology.topology(listeners, List.of());
+        final long version = topology.version();
+        topology.topology(listeners, List.of());
+        assertThat(topology.version()).isEqualTo(version);
+        assertThat(first.toJson()).contains("ORDERS").contains("lambda").contains(ListenerTopologyTest.class.getName());
+
+        listeners.get("ORDERS").add(event -> {});
+        topology.topology(listeners, List.of());
+        assertThat(topology.version()).isGreaterThan(version);
+    }
+
+    @Test
+    void profilingWrapsAndRestoresListenersTest() {
+        final AtomicInteger calls = new AtomicInteger();
+        final Consumer<Object> original = event -> calls.incrementAndGet();
+        final Map<String, Set<Consumer<Object>>> listeners = new ConcurrentHashMap<>();
+        final Set<Consumer<Object>> orders = ConcurrentHashMap.newKeySet();
+        orders.add(original);
+        listeners.put("ORDERS", orders);
+        final ListenerTopology topology = new ListenerTopology();
+
+        topology.profiling(true, listeners);
+        assertThat(listeners.get("ORDERS")).isInstanceOf(ListenerTopology.ProfiledSet.class).hasSize(1);
+        assertThat(orders).containsExactly(original);
+        listeners.get("ORDERS").forEach(listener -> listener.accept("event"));
+        listeners.get("ORDERS").forEach(listener -> listener.accept("event"));
+        assertThat(calls.get()).isEqualTo(2);
+        assertThat(topology.topology(listeners, List.of()).toJson()).contains("latency").contains("p99Micros");
+
+        topology.profiling(false, listeners);
+        assertThat(listeners.get("ORDERS")).isSameAs(orders).containsExactly(original);
+    }
+
+    @Test
+    void unsubscribeByOriginalWhileProfilingTest() {
+        final AtomicInteger calls = new AtomicInteger();
+        final Consumer<Object> original = event -> calls.incrementAndGet();
+        final Map<String, Set<Consumer<Object>>> listeners = new ConcurrentHashMap<>();
+        listeners.computeIfAbsent("ORDERS", k -> ConcurrentHashMap.newKeySet()).add(original);
+        final ListenerTopology topology = new ListenerTopology();
+        topology.profiling(true, listeners);
+
+        // Subscribing the same listener again keeps one delivery, the way it does without profiling
+        listeners.computeIfAbsent("ORDERS", k -> ConcurrentHashMap.newKeySet()).add(original);
+        listeners.get("ORDERS").forEach(listener -> listener.accept("event"));
+        assertThat(calls.get()).isEqualTo(1);
+
+        // The owner unsubscribes by the reference it subscribed, no wrapper is left delivering
+        assertThat(listeners.get("ORDERS").remove(original)).isTrue();
+        assertThat(listeners.get("ORDERS")).isEmpty();
+        listeners.get("ORDERS").forEach(listener -> listener.accept("event"));
+        assertThat(calls.get()).isEqualTo(1);
+
+        topology.profiling(false, listeners);
+        assertThat(listeners.get("ORDERS")).isEmpty();
+    }
+}
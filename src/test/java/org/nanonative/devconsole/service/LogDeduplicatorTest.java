@@ -0,0 +1,72 @@
+package org.nanonative.devconsole.service;
+
+import org.junit.jupiter.api.Test;
+import org.nanonative.devconsole.util.LogDeduplicator;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LogDeduplicatorTest {
+
+    @Test
+    void collapsesRepeatsWithoutFormattingTest() {
+        final AtomicInteger formatted = new AtomicInteger();
+        final LogDeduplicator dedup = new LogDeduplicator(1000);
+        final LogDeduplicator.Entry first = dedup.capture(record("storm", "Connection to {} refused", 1000), r -> formatted.incrementAndGet() + " refused\n");
+        assertThat(first).isNotNull();
+        for (int i = 1; i < 100; i++)
+            assertThat(dedup.capture(record("storm", "Connection to {} refused", 1000 + i), r -> formatted.incrementAndGet() + " refused\n")).isNull();
+
+        assertThat(formatted.get()).isEqualTo(1);
+        assertThat(first.count()).isEqualTo(100);
+        assertThat(first.lastMs()).isEqualTo(1099);
+        assertThat(first.toString()).contains("[x100, first ").endsWith("]\n");
+        assertThat(dedup.collapsed()).isEqualTo(99);
+        assertThat(dedup.rates(10)).containsKey("storm");
+        assertThat(((Map<?, ?>) dedup.rates(10).get("storm")).get("total")).isEqualTo(100L);
+    }
+
+    @Test
+    void keepsDistinctAndEvictedEntriesSeparateTest() {
+        final LogDeduplicator dedup = new LogDeduplicator(1000);
+        final LogDeduplicator.Entry a = dedup.capture(record("a", "same", 0), LogRecord::getMessage);
+        assertThat(dedup.capture(record("b", "same", 0), LogRecord::getMessage)).isNotNull();
+        // Outside the window a repeat starts a new entry
+        assertThat(dedup.capture(record("a", "same", 5000), LogRecord::getMessage)).isNotNull().isNotSameAs(a);
+
+        final LogDeduplicator.Entry c = dedup.capture(record("c", "same", 0), LogRecord::getMessage);
+        c.evicted();
+        assertThat(dedup.capture(record("c", "same", 1), LogRecord::getMessage)).isNotNull().isNotSameAs(c);
+
+        final LogDeduplicator disabled = new LogDeduplicator(0);
+        assertThat(disabled.capture(record("d", "same", 0), LogRecord::getMessage)).isNotNull();
+        assertThat(disabled.capture(record("d", "same", 0), LogRecord::getMessage)).isNotNull();
+    }
+
+    @Test
+    void collapsingBumpsVersionButKeepsIdTest() {
+        final LogDeduplicator dedup = new LogDeduplicator(1000);
+        final LogDeduplicator.Entry entry = dedup.capture(record("v", "tick", 0), LogRecord::getMessage);
+        assertThat(entry.version()).isZero();
+        dedup.publish(entry);
+        final long id = entry.id();
+        final long published = dedup.version();
+        assertThat(entry.version()).isEqualTo(published);
+
+        assertThat(dedup.capture(record("v", "tick", 1), LogRecord::getMessage)).isNull();
+        assertThat(entry.id()).isEqualTo(id);
+        assertThat(entry.version()).isGreaterThan(published).isEqualTo(dedup.version());
+    }
+
+    private static LogRecord record(final String logger, final String message, final long millis) {
+        final LogRecord record = new LogRecord(Level.WARNING, message);
+        record.setLoggerName(logger);
+        record.setInstant(Instant.ofEpochMilli(millis));
+        return record;
+    }
+}
@@ -0,0 +1,36 @@
+package org.nanonative.devconsole.service;
+
+import berlin.yuna.typemap.model.LinkedTypeMap;
+import berlin.yuna.typemap.model.TypeList;
+import org.junit.jupiter.api.Test;
+import org.nanonative.devconsole.util.PeerFederation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PeerFederationTest {
+
+    @Test
+    void parsePeersRejectsNonHttpEntriesTest() {
+        final List<String> rejected = new ArrayList<>();
+        final List<String> peers = PeerFederation.parsePeers(" http://node-2:8080/ , ftp://node-3, node-4:8080, https://node-5, http://bad host, http://node-2:8080", rejected::add);
+
+        assertThat(peers).containsExactly("http://node-2:8080", "https://node-5");
+        assertThat(rejected).containsExactly("ftp://node-3", "node-4:8080", "http://bad host");
+    }
+
+    @Test
+    void peerThatCannotBeRequestedIsUnreachableTest() {
+        // Not a valid URI, so the request fails before it is sent
+        try (PeerFederation federation = new PeerFederation(List.of("http://bad host"), 100, 1_000)) {
+            final LinkedTypeMap view = federation.clusterView("/dev-console", new LinkedTypeMap(), new TypeList(), List.of());
+            final Map<?, ?> peer = (Map<?, ?>) ((List<?>) view.get("nodes")).get(1);
+
+            assertThat(peer.get("status")).isEqualTo("unreachable");
+            assertThat(String.valueOf(peer.get("error"))).contains("IllegalArgumentException");
+        }
+    }
+}
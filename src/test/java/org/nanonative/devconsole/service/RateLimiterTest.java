@@ -0,0 +1,42 @@
+package org.nanonative.devconsole.service;
+
+import org.junit.jupiter.api.Test;
+import org.nanonative.devconsole.util.RateLimiter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimiterTest {
+
+    @Test
+    void burstThenRejectTest() {
+        final RateLimiter limiter = new RateLimiter(1, 3);
+        assertThat(limiter.acquire("a")).isZero();
+        assertThat(limiter.acquire("a")).isZero();
+        assertThat(limiter.acquire("a")).isZero();
+        assertThat(limiter.acquire("a")).isEqualTo(1);
+        assertThat(limiter.rejected()).isEqualTo(1);
+        // Other clients have their own bucket
+        assertThat(limiter.acquire("b")).isZero();
+    }
+
+    @Test
+    void disabledLimiterAlwaysPassesTest() {
+        final RateLimiter limiter = new RateLimiter(0, 0);
+        for (int i = 0; i < 100; i++)
+            assertThat(limiter.acquire("a")).isZero();
+        assertThat(limiter.isEnabled()).isFalse();
+    }
+
+    @Test
+    void clientsBeyondCapShareOneBucketTest() {
+        final RateLimiter limiter = new RateLimiter(1, 1);
+        for (int i = 0; i < RateLimiter.MAX_CLIENTS; i++)
+            assertThat(limiter.acquire("client-" + i)).isZero();
+        assertThat(limiter.clients()).isEqualTo(RateLimiter.MAX_CLIENTS);
+
+        // No bucket is idle yet, so new clients fall back to the shared overflow bucket
+        assertThat(limiter.acquire("new-1")).isZero();
+        assertThat(limiter.acquire("new-2")).isEqualTo(1);
+        assertThat(limiter.clients()).isEqualTo(RateLimiter.MAX_CLIENTS);
+    }
+}
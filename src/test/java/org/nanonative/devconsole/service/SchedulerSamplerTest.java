@@ -0,0 +1,115 @@
+package org.nanonative.devconsole.service;
+
+import org.junit.jupiter.api.Test;
+import org.nanonative.devconsole.util.SchedulerSampler;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SchedulerSamplerTest {
+
+    @Test
+    void reportsPendingActiveAndLagTest() throws InterruptedException {
+        final ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1);
+        final CountDownLatch running = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        try {
+            scheduler.execute(() -> {
+                running.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            running.await();
+            // Due immediately but blocked behind the running task, so it is overdue when sampled
+            scheduler.schedule(() -> {}, 0, TimeUnit.MILLISECONDS);
+            Thread.sleep(20);
+
+            final SchedulerSampler sampler = new SchedulerSampler();
+            sampler.sample(Set.of(scheduler), System.nanoTime());
+            assertThat(sampler.totalPending()).isEqualTo(1);
+            assertThat(sampler.totalOverdue()).isEqualTo(1);
+            assertThat(sampler.snapshot().toJson()).contains("\"active\":1").contains("\"pending\":1").contains("p99Micros");
+
+            // Still overdue on the next sample, the run is recorded once it has left the queue
+            sampler.sample(Set.of(scheduler), System.nanoTime());
+            assertThat(sampler.totalOverdue()).isEqualTo(1);
+            assertThat(lag(sampler).get("count")).isEqualTo(0L);
+            release.countDown();
+            waitForEmptyQueue(scheduler);
+            sampler.sample(Set.of(scheduler), System.nanoTime());
+            sampler.sample(Set.of(scheduler), System.nanoTime());
+            assertThat(lag(sampler).get("count")).isEqualTo(1L);
+        } finally {
+            release.countDown();
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Test
+    void lagGrowsWithTheStallTest() throws InterruptedException {
+        final ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1);
+        final CountDownLatch running = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        try {
+            scheduler.execute(() -> {
+                running.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            running.await();
+            scheduler.schedule(() -> {}, 0, TimeUnit.MILLISECONDS);
+            Thread.sleep(10);
+
+            // First seen with a small lag, then the worker stays blocked
+            final SchedulerSampler sampler = new SchedulerSampler();
+            sampler.sample(Set.of(scheduler), System.nanoTime());
+            Thread.sleep(300);
+            sampler.sample(Set.of(scheduler), System.nanoTime());
+            release.countDown();
+            waitForEmptyQueue(scheduler);
+            sampler.sample(Set.of(scheduler), System.nanoTime());
+
+            assertThat(lag(sampler).get("count")).isEqualTo(1L);
+            assertThat((Double) lag(sampler).get("p99Micros")).isGreaterThanOrEqualTo(300_000.0);
+        } finally {
+            release.countDown();
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Test
+    void dropsSchedulersThatDisappearTest() {
+        final ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1);
+        try {
+            final SchedulerSampler sampler = new SchedulerSampler();
+            sampler.sample(Set.of(scheduler), System.nanoTime());
+            assertThat(sampler.snapshot()).hasSize(1);
+            sampler.sample(List.of(), System.nanoTime());
+            assertThat(sampler.snapshot()).isEmpty();
+        } finally {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private static Map<?, ?> lag(final SchedulerSampler sampler) {
+        return (Map<?, ?>) ((Map<?, ?>) sampler.snapshot().getFirst()).get("lag");
+    }
+
+    private static void waitForEmptyQueue(final ScheduledThreadPoolExecutor scheduler) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 2_000;
+        while (!scheduler.getQueue().isEmpty() && System.currentTimeMillis() < deadline)
+            Thread.sleep(5);
+    }
+}
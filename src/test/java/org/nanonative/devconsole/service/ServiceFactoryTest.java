@@ -0,0 +1,45 @@
+package org.nanonative.devconsole.service;
+
+import org.junit.jupiter.api.Test;
+import org.nanonative.devconsole.util.ClassInfo;
+import org.nanonative.devconsole.util.ServiceFactory;
+import org.nanonative.nano.services.metric.logic.MetricService;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.nanonative.devconsole.util.SystemUtil.VIRTUAL_EXECUTOR;
+
+class ServiceFactoryTest {
+
+    @Test
+    void missingClassIsIsolatedTest() {
+        final ServiceFactory factory = new ServiceFactory(List.of("org.example.GoneService", MetricService.class.getName()));
+
+        assertThat(factory.getClassInfo("GoneService")).isNull();
+        assertThat(factory.failures()).containsKey("GoneService");
+        assertThat(factory.newInstance("MetricService", MetricService.class)).isInstanceOf(MetricService.class);
+        assertThatThrownBy(() -> factory.newInstance("GoneService", MetricService.class)).hasMessageContaining("Unknown service");
+    }
+
+    @Test
+    void resolutionIsMemoizedTest() {
+        final ServiceFactory factory = new ServiceFactory(List.of(MetricService.class.getName()));
+
+        assertThat(factory.stats()).containsEntry("resolved", 0L);
+        final ClassInfo first = factory.getClassInfo("MetricService");
+        assertThat(factory.getClassInfo("MetricService")).isSameAs(first);
+        assertThat((Map<?, ?>) factory.stats().get("slowestMs")).containsKey("MetricService");
+    }
+
+    @Test
+    void warmUpResolvesAllEntriesTest() {
+        final ServiceFactory factory = new ServiceFactory(List.of("org.example.GoneService", MetricService.class.getName()));
+
+        factory.warmUp(VIRTUAL_EXECUTOR).join();
+
+        assertThat(factory.stats()).containsEntry("catalogued", 2).containsEntry("resolved", 1L).containsEntry("failed", 1);
+    }
+}
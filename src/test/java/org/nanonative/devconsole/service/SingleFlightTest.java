@@ -0,0 +1,94 @@
+package org.nanonative.devconsole.service;
+
+import org.junit.jupiter.api.Test;
+import org.nanonative.devconsole.util.SingleFlight;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.nanonative.devconsole.util.SystemUtil.VIRTUAL_EXECUTOR;
+
+class SingleFlightTest {
+
+    @Test
+    void concurrentCallersShareOneComputationTest() throws InterruptedException {
+        final SingleFlight singleFlight = new SingleFlight();
+        final AtomicInteger computations = new AtomicInteger();
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch started = new CountDownLatch(1);
+
+        final List<CompletableFuture<String>> callers = new ArrayList<>();
+        callers.add(CompletableFuture.supplyAsync(() -> singleFlight.get("info", 0, () -> {
+            computations.incrementAndGet();
+            started.countDown();
+            await(release);
+            return "result";
+        }), VIRTUAL_EXECUTOR));
+        assertThat(started.await(2, TimeUnit.SECONDS)).isTrue();
+        for (int i = 0; i < 8; i++)
+            callers.add(CompletableFuture.supplyAsync(() -> singleFlight.get("info", 0, () -> "late-" + computations.incrementAndGet()), VIRTUAL_EXECUTOR));
+
+        final long deadline = System.currentTimeMillis() + 2000;
+        while (((Long) singleFlight.stats().get("coalesced")) < 8 && System.currentTimeMillis() < deadline)
+            Thread.sleep(5);
+        release.countDown();
+
+        callers.forEach(caller -> assertThat(caller.join()).isEqualTo("result"));
+        assertThat(computations.get()).isEqualTo(1);
+        assertThat(singleFlight.stats()).containsEntry("computed", 1L).containsEntry("coalesced", 8L);
+    }
+
+    @Test
+    void ttlReusesResultTest() {
+        final SingleFlight singleFlight = new SingleFlight();
+        final AtomicInteger computations = new AtomicInteger();
+
+        singleFlight.get("events", 10_000, computations::incrementAndGet);
+        singleFlight.get("events", 10_000, computations::incrementAndGet);
+        assertThat(computations.get()).isEqualTo(1);
+
+        singleFlight.get("logs", 0, computations::incrementAndGet);
+        singleFlight.get("logs", 0, computations::incrementAndGet);
+        assertThat(computations.get()).isEqualTo(3);
+    }
+
+    @Test
+    void cacheIsBoundedTest() {
+        final SingleFlight singleFlight = new SingleFlight();
+        final AtomicInteger computations = new AtomicInteger();
+
+        for (int i = 0; i < SingleFlight.MAX_CACHED * 4; i++)
+            singleFlight.get("events:" + i, 10_000, computations::incrementAndGet);
+        assertThat(singleFlight.size()).isEqualTo(SingleFlight.MAX_CACHED);
+
+        // Keys that did not fit are still computed, just not cached
+        singleFlight.get("events:" + (SingleFlight.MAX_CACHED * 4 - 1), 10_000, computations::incrementAndGet);
+        assertThat(computations.get()).isEqualTo(SingleFlight.MAX_CACHED * 4 + 1);
+    }
+
+    @Test
+    void expiredEntriesAreRemovedTest() throws InterruptedException {
+        final SingleFlight singleFlight = new SingleFlight();
+
+        singleFlight.get("info", 1, () -> "old");
+        Thread.sleep(5);
+        for (int i = 0; i < SingleFlight.MAX_CACHED; i++)
+            singleFlight.get("logs:" + i, 10_000, () -> "fresh");
+
+        assertThat(singleFlight.size()).isEqualTo(SingleFlight.MAX_CACHED);
+        assertThat(singleFlight.get("logs:" + (SingleFlight.MAX_CACHED - 1), 10_000, () -> "recomputed")).isEqualTo("fresh");
+    }
+
+    private static void await(final CountDownLatch latch) {
+        try {
+            latch.await(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
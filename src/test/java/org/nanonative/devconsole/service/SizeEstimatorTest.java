@@ -0,0 +1,49 @@
+package org.nanonative.devconsole.service;
+
+import org.junit.jupiter.api.Test;
+import org.nanonative.devconsole.util.SizeEstimator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SizeEstimatorTest {
+
+    record Order(String id, byte[] blob, List<String> tags) {}
+
+    static final class Node {
+        Node next;
+        long value;
+    }
+
+    @Test
+    void pojoFieldsAreCountedTest() {
+        final Order order = new Order("order-1", new byte[100_000], List.of("a", "b"));
+
+        assertThat(SizeEstimator.estimate(order)).isGreaterThan(100_000);
+    }
+
+    @Test
+    void cyclesAndLongChainsAreBoundedTest() {
+        final Node cycle = new Node();
+        cycle.next = cycle;
+        assertThat(SizeEstimator.estimate(cycle)).isPositive().isLessThan(100);
+
+        Node head = new Node();
+        for (int i = 0; i < 10_000; i++) {
+            final Node node = new Node();
+            node.next = head;
+            head = node;
+        }
+        assertThat(SizeEstimator.estimate(head)).isLessThan((SizeEstimator.MAX_NODES + 1) * 40L);
+    }
+
+    @Test
+    void sharedInstancesAreCountedOnceTest() {
+        final Order order = new Order("order-1", new byte[10_000], List.of());
+        final List<Order> orders = new ArrayList<>(List.of(order, order, order));
+
+        assertThat(SizeEstimator.estimate(orders)).isLessThan(20_000);
+    }
+}